@@ -0,0 +1,91 @@
+package com.olumide.springboottesting.benchmark;
+
+import com.olumide.springboottesting.SpringBootTestingApplication;
+import com.olumide.springboottesting.model.Employee;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application for a benchmark trial. The write path relies on PostgreSQL-only SQL
+ * ({@code ON CONFLICT ... RETURNING}), so an embedded PostgreSQL is started unless the
+ * {@code benchmark.jdbc-url} system property names an existing database. The same database is handed to
+ * R2DBC for runs under the reactive profile ({@code benchmark.r2dbc-url} overrides the derived URL).
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private final EmbeddedPostgres embeddedPostgres;
+
+    private final ConfigurableApplicationContext applicationContext;
+
+    private BenchmarkContext(EmbeddedPostgres embeddedPostgres, ConfigurableApplicationContext applicationContext) {
+        this.embeddedPostgres = embeddedPostgres;
+        this.applicationContext = applicationContext;
+    }
+
+    static BenchmarkContext start() throws IOException {
+        return start(WebApplicationType.NONE);
+    }
+
+    static BenchmarkContext start(WebApplicationType webApplicationType, String... extraArgs) throws IOException {
+        String jdbcUrl = System.getProperty("benchmark.jdbc-url");
+        String r2dbcUrl = System.getProperty("benchmark.r2dbc-url");
+        EmbeddedPostgres embeddedPostgres = null;
+        if (jdbcUrl == null) {
+            embeddedPostgres = EmbeddedPostgres.start();
+            jdbcUrl = embeddedPostgres.getJdbcUrl("postgres", "postgres");
+            r2dbcUrl = "r2dbc:postgresql://localhost:" + embeddedPostgres.getPort() + "/postgres";
+        } else if (r2dbcUrl == null) {
+            r2dbcUrl = jdbcUrl.replaceFirst("^jdbc:", "r2dbc:");
+        }
+        String username = System.getProperty("benchmark.jdbc-username", "postgres");
+        String password = System.getProperty("benchmark.jdbc-password", "postgres");
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--spring.r2dbc.url=" + r2dbcUrl,
+                "--spring.r2dbc.username=" + username,
+                "--spring.r2dbc.password=" + password,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=warn"));
+        args.addAll(List.of(extraArgs));
+        ConfigurableApplicationContext applicationContext = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(String[]::new));
+        return new BenchmarkContext(embeddedPostgres, applicationContext);
+    }
+
+    int getLocalPort() {
+        return applicationContext.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return applicationContext.getBean(type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        applicationContext.close();
+        if (embeddedPostgres != null) {
+            embeddedPostgres.close();
+        }
+    }
+
+    static List<Employee> employees(int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(Employee.builder()
+                    .firstName("first" + i)
+                    .lastName("last" + i)
+                    .email("employee" + i + "@benchmark.com")
+                    .build());
+        }
+        return employees;
+    }
+}
@@ -0,0 +1,72 @@
+package com.olumide.springboottesting.benchmark;
+
+import com.olumide.springboottesting.controller.EmployeeController;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Drives the MVC request path (argument resolution, controller, service, Jackson) without a servlet container.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeControllerBenchmark {
+
+    @Param({"1000"})
+    int rows;
+
+    private BenchmarkContext context;
+
+    private MockMvc mockMvc;
+
+    private long[] ids;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = BenchmarkContext.start();
+        mockMvc = MockMvcBuilders.standaloneSetup(context.getBean(EmployeeController.class)).build();
+        ids = context.getBean(EmployeeRepository.class).saveAll(BenchmarkContext.employees(rows)).stream()
+                .mapToLong(Employee::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getEmployeeById() throws Exception {
+        return mockMvc.perform(get("/api/employees/{id}", ids[ThreadLocalRandom.current().nextInt(ids.length)])).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getAllEmployees() throws Exception {
+        return mockMvc.perform(get("/api/employees")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createEmployee() throws Exception {
+        long n = sequence.incrementAndGet();
+        return mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"first\",\"lastName\":\"last\",\"email\":\"new" + n + "@benchmark.com\"}"))
+                .andReturn();
+    }
+}
@@ -0,0 +1,90 @@
+package com.olumide.springboottesting.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work done by one read request, entity path versus record projection: query in a read-only
+ * transaction, then serialize the result to JSON bytes.
+ * <p>
+ * The interesting number is allocation per request, so run with the GC profiler and compare
+ * {@code gc.alloc.rate.norm} (bytes/op) between the {@code entity*} and {@code view*} methods:
+ * {@code mvn -Pjmh -DskipTests verify -Djmh.args="EmployeeReadBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeReadBenchmark {
+
+    @Param({"1000"})
+    int rows;
+
+    private BenchmarkContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private TransactionTemplate readOnly;
+
+    private ObjectMapper objectMapper;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = BenchmarkContext.start();
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        ids = employeeRepository.saveAll(BenchmarkContext.employees(rows)).stream().mapToLong(Employee::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entityList() {
+        return readOnly.execute(status -> json(employeeRepository.findAll()));
+    }
+
+    @Benchmark
+    public byte[] viewList() {
+        return readOnly.execute(status -> json(employeeRepository.findAllViews()));
+    }
+
+    @Benchmark
+    public byte[] entityById() {
+        long id = randomId();
+        return readOnly.execute(status -> json(employeeRepository.findById(id).orElseThrow()));
+    }
+
+    @Benchmark
+    public byte[] viewById() {
+        long id = randomId();
+        return readOnly.execute(status -> json(employeeRepository.findViewById(id).orElseThrow()));
+    }
+
+    private byte[] json(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
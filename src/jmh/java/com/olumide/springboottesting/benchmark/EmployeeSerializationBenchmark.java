@@ -0,0 +1,75 @@
+package com.olumide.springboottesting.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.olumide.springboottesting.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode/decode cost of an employee list in each wire format the API negotiates. Payload sizes, raw and
+ * gzipped, are printed once per trial since they do not change between iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeSerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int size;
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter listWriter;
+
+    private List<Employee> employees;
+
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        objectMapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Employee.class));
+        employees = BenchmarkContext.employees(size);
+        for (int i = 0; i < employees.size(); i++) {
+            employees.get(i).setId((long) i + 1);
+            employees.get(i).setVersion(0L);
+        }
+        encoded = listWriter.writeValueAsBytes(employees);
+        System.out.printf("%n%s, %d employees: %d bytes, %d gzipped%n", format, size, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return listWriter.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public List<Employee> deserializeList() throws Exception {
+        return objectMapper.readValue(encoded, objectMapper.getTypeFactory().constructCollectionType(List.class, Employee.class));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
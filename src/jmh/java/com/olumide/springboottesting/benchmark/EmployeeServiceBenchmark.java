@@ -0,0 +1,80 @@
+package com.olumide.springboottesting.benchmark;
+
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.repository.EmployeeRepository;
+import com.olumide.springboottesting.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeServiceBenchmark {
+
+    @Param({"1000"})
+    int rows;
+
+    private BenchmarkContext context;
+
+    private EmployeeService employeeService;
+
+    private EmployeeRepository employeeRepository;
+
+    private long[] ids;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = BenchmarkContext.start();
+        employeeService = context.getBean(EmployeeService.class);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        ids = employeeRepository.saveAll(BenchmarkContext.employees(rows)).stream().mapToLong(Employee::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        long n = sequence.incrementAndGet();
+        return employeeService.saveEmployee(Employee.builder()
+                .firstName("first")
+                .lastName("last")
+                .email("new" + n + "@benchmark.com")
+                .build());
+    }
+
+    @Benchmark
+    public Optional<EmployeeView> getById() {
+        return employeeService.getById(randomId());
+    }
+
+    /**
+     * Same lookup as {@link #getById()} but bypassing the service cache, i.e. the database round trip.
+     */
+    @Benchmark
+    public Optional<EmployeeView> findByIdUncached() {
+        return employeeRepository.findViewById(randomId());
+    }
+
+    @Benchmark
+    public List<EmployeeView> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,162 @@
+package com.olumide.springboottesting.benchmark;
+
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.repository.EmployeeRepository;
+import com.olumide.springboottesting.repository.ReactiveEmployeeRepository;
+import org.springframework.boot.WebApplicationType;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares GET /api/employees/{id} latency and throughput per core with requests served on the Tomcat platform
+ * thread pool, on virtual threads, and by the WebFlux/R2DBC stack of the {@code reactive} profile. Each mode boots
+ * the application on a random port with the employee cache disabled, so every request reaches the connection
+ * pool, and drives it with closed-loop clients running on virtual threads. The clients share the machine with
+ * the server, so req/s per core is only comparable between modes of the same run.
+ * <p>
+ * Run with: {@code mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.olumide.springboottesting.benchmark.ExecutionModeLoadTest}
+ * <p>
+ * Tunables (system properties): {@code load.clients} (5000), {@code load.warmup-seconds} (10),
+ * {@code load.duration-seconds} (30), {@code load.rows} (10000), {@code load.modes} (platform,virtual,reactive). 5000 clients need roughly 10k open file
+ * descriptors ({@code ulimit -n}).
+ */
+public final class ExecutionModeLoadTest {
+
+    private ExecutionModeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 5000);
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration-seconds", 30));
+        int rows = Integer.getInteger("load.rows", 10000);
+
+        List<String> modes = List.of(System.getProperty("load.modes", "platform,virtual,reactive").split(","));
+
+        List<String> report = new ArrayList<>();
+        for (String mode : modes) {
+            try (BenchmarkContext context = start(mode, clients)) {
+                long[] ids = seed(context, mode, rows);
+                URI base = URI.create("http://localhost:" + context.getLocalPort() + "/api/employees/");
+                drive(base, ids, clients, warmup);
+                Result result = drive(base, ids, clients, duration);
+                report.add(result.format(mode, duration));
+            }
+        }
+        System.out.printf("%-9s %10s %10s %12s %10s %10s %10s %8s %8s%n",
+                "mode", "requests", "req/s", "req/s/core", "p50 ms", "p99 ms", "max ms", "503s", "errors");
+        report.forEach(System.out::println);
+    }
+
+    private static BenchmarkContext start(String mode, int clients) throws IOException {
+        return switch (mode) {
+            case "platform", "virtual" -> BenchmarkContext.start(WebApplicationType.SERVLET,
+                    "--server.port=0",
+                    "--server.tomcat.max-connections=" + (clients * 2),
+                    "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                    "--employee.cache.maximum-size=0",
+                    // every client shares one address, and the pool alone should bound concurrency, as in reactive
+                    "--employee.rate-limit.enabled=false",
+                    "--employee.bulkhead.list=" + clients,
+                    "--employee.bulkhead.lookup=" + clients);
+            // no Hibernate under the reactive profile, so the schema comes from benchmark-schema.sql
+            case "reactive" -> BenchmarkContext.start(WebApplicationType.REACTIVE,
+                    "--spring.profiles.active=reactive",
+                    "--server.port=0",
+                    "--spring.sql.init.mode=always",
+                    "--spring.sql.init.schema-locations=classpath:benchmark-schema.sql");
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        };
+    }
+
+    private static long[] seed(BenchmarkContext context, String mode, int rows) {
+        if (mode.equals("reactive")) {
+            ReactiveEmployeeRepository repository = context.getBean(ReactiveEmployeeRepository.class);
+            return Flux.fromIterable(BenchmarkContext.employees(rows))
+                    .flatMap(repository::insertIfEmailAbsent, 16)
+                    .map(Employee::getId)
+                    .collectList()
+                    .block()
+                    .stream().mapToLong(Long::longValue).toArray();
+        }
+        return context.getBean(EmployeeRepository.class).saveAll(BenchmarkContext.employees(rows)).stream()
+                .mapToLong(Employee::getId).toArray();
+    }
+
+    private static Result drive(URI base, long[] ids, int clients, Duration duration) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        long[][] latencies = new long[clients][];
+        LongAdder unavailable = new LongAdder();
+        LongAdder errors = new LongAdder();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(
+                                base.resolve(Long.toString(ids[ThreadLocalRandom.current().nextInt(ids.length)]))).GET().build();
+                        long start = System.nanoTime();
+                        try {
+                            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 503) {
+                                unavailable.increment();
+                            } else if (status != 200) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    latencies[client] = Arrays.copyOf(samples, count);
+                });
+            }
+        }
+        httpClient.close();
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, unavailable.sum(), errors.sum());
+    }
+
+    private record Result(long[] sortedLatencies, long unavailable, long errors) {
+
+        String format(String mode, Duration duration) {
+            int n = sortedLatencies.length;
+            double throughput = n / (double) duration.toSeconds();
+            return String.format("%-9s %10d %10.0f %12.0f %10.2f %10.2f %10.2f %8d %8d", mode, n,
+                    throughput, throughput / Runtime.getRuntime().availableProcessors(),
+                    millis(percentile(0.50)), millis(percentile(0.99)),
+                    millis(n == 0 ? 0 : sortedLatencies[n - 1]), unavailable, errors);
+        }
+
+        private long percentile(double p) {
+            return sortedLatencies.length == 0 ? 0 : sortedLatencies[(int) Math.ceil(p * sortedLatencies.length) - 1];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
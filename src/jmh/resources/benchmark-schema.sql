@@ -0,0 +1,11 @@
+-- Schema for benchmark runs under the reactive profile, where Hibernate is not there to create it.
+-- Matches the employees table of db/migration/postgresql/V1__create_employees.sql.
+create sequence if not exists employees_seq start with 1 increment by 50;
+
+create table if not exists employees (
+    id         bigint       not null primary key,
+    first_name varchar(255),
+    last_name  varchar(255),
+    email      varchar(255) constraint uk_employees_email unique,
+    version    bigint       default 0 not null
+);
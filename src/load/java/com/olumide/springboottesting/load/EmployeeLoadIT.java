@@ -0,0 +1,119 @@
+package com.olumide.springboottesting.load;
+
+import com.olumide.springboottesting.integration.AbstractionBaseTest;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the application, started on a random port against the Testcontainers PostgreSQL of
+ * {@link AbstractionBaseTest}, with each workload mix in turn at a fixed arrival rate ({@link OpenLoopDriver}), then
+ * compares the response time percentiles and error rates with the stored baseline and fails on a regression.
+ * Per-client rate limiting is off, as every request comes from this one address; the bulkheads stay as configured
+ * and what they turn away is reported as shed.
+ * <p>
+ * Run with: {@code mvn -Pload verify}. Reports are written to {@code target/load}. Record a new baseline, on the
+ * machine the comparison will run on, with {@code -Dload.update-baseline=true}.
+ * <p>
+ * Tunables (system properties): {@code load.workloads} (read-heavy,list-heavy,write-heavy), {@code load.rate}
+ * (200 req/s), {@code load.warmup-seconds} (10, per workload), {@code load.duration-seconds} (30), {@code load.rows} (10000),
+ * {@code load.max-in-flight} (1000), {@code load.request-timeout-seconds} (10), {@code load.baseline}
+ * (src/load/resources/load-baseline.json), {@code load.latency-tolerance} (1.0), {@code load.latency-slack-ms} (5),
+ * {@code load.rate-slack} (0.01), {@code load.reruns} (1).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.rate-limit.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=warn"})
+class EmployeeLoadIT extends AbstractionBaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    public void givenWorkloadMixes_whenDrivenAtFixedRate_thenStayWithinBaseline() throws Exception {
+        //given
+        List<Workload> workloads = Arrays.stream(System.getProperty("load.workloads", "read-heavy,list-heavy,write-heavy").split(","))
+                .map(String::trim)
+                .map(Workload::of)
+                .toList();
+        double rate = Double.parseDouble(System.getProperty("load.rate", "200"));
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration-seconds", 30));
+        Path baselineFile = Path.of(System.getProperty("load.baseline", "src/load/resources/load-baseline.json"));
+        long[] ids = employeeRepository.saveAll(employees(Integer.getInteger("load.rows", 10000))).stream()
+                .mapToLong(Employee::getId)
+                .toArray();
+        LoadReport report = new LoadReport();
+        boolean updateBaseline = Boolean.getBoolean("load.update-baseline");
+        Map<String, LoadReport.Summary> baseline = Map.of();
+        if (!updateBaseline) {
+            assertThat(baselineFile).as("baseline; record one with -Dload.update-baseline=true").exists();
+            baseline = LoadReport.readSummaries(baselineFile);
+        }
+        double latencyTolerance = Double.parseDouble(System.getProperty("load.latency-tolerance", "1.0"));
+        double latencySlackMillis = Double.parseDouble(System.getProperty("load.latency-slack-ms", "5"));
+        double rateSlack = Double.parseDouble(System.getProperty("load.rate-slack", "0.01"));
+        Map<String, List<String>> regressions;
+
+        //when
+        try (OpenLoopDriver driver = new OpenLoopDriver("http://localhost:" + port + "/api/employees", ids,
+                Integer.getInteger("load.max-in-flight", 1000),
+                Duration.ofSeconds(Long.getLong("load.request-timeout-seconds", 10)))) {
+            // every mix is warmed up before any is measured, so the first one does not carry the JIT's cold start
+            for (Workload workload : workloads) {
+                driver.run(workload, rate, warmup);
+            }
+            for (Workload workload : workloads) {
+                report.add(driver.run(workload, rate, duration));
+            }
+            // a single stall (GC, autovacuum, a noisy neighbour) can move a short run's p99; only a regression
+            // that shows up again when the workload is measured once more fails the build
+            regressions = report.regressions(baseline, latencyTolerance, latencySlackMillis, rateSlack);
+            for (int rerun = 0; rerun < Integer.getInteger("load.reruns", 1) && !regressions.isEmpty(); rerun++) {
+                for (String workload : regressions.keySet()) {
+                    report.add(driver.run(Workload.of(workload), rate, duration));
+                }
+                regressions = report.regressions(baseline, latencyTolerance, latencySlackMillis, rateSlack);
+            }
+        }
+
+        //then
+        report.write(Path.of("target", "load"));
+        System.out.print(report.format());
+        if (updateBaseline) {
+            report.writeSummaries(baselineFile);
+            return;
+        }
+        assertThat(regressions.values().stream().flatMap(List::stream).toList())
+                .as("regressions against %s", baselineFile)
+                .isEmpty();
+    }
+
+    private static List<Employee> employees(int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(Employee.builder()
+                    .firstName("first" + i)
+                    .lastName("last" + i)
+                    .email("employee" + i + "@load.test")
+                    .build());
+        }
+        return employees;
+    }
+}
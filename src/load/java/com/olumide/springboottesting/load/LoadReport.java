@@ -0,0 +1,158 @@
+package com.olumide.springboottesting.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of a load test run, one entry per workload, and its comparison with a stored baseline of the same shape.
+ * Latencies are response times (from the scheduled start) in milliseconds.
+ */
+final class LoadReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    record Summary(long requests, double throughput, double p50, double p90, double p99, double p999, double max,
+                   double serviceP99, double errorRate, double shedRate) {
+
+        static Summary of(OpenLoopDriver.Result result) {
+            Histogram responseTimes = result.responseTimes();
+            long requests = responseTimes.getTotalCount();
+            return new Summary(requests,
+                    round(requests / (result.duration().toNanos() / 1e9)),
+                    millis(responseTimes.getValueAtPercentile(50)),
+                    millis(responseTimes.getValueAtPercentile(90)),
+                    millis(responseTimes.getValueAtPercentile(99)),
+                    millis(responseTimes.getValueAtPercentile(99.9)),
+                    millis(responseTimes.getMaxValue()),
+                    millis(result.serviceTimes().getValueAtPercentile(99)),
+                    ratio(result.errors(), requests),
+                    ratio(result.shed(), requests));
+        }
+    }
+
+    private final Map<String, Summary> summaries = new LinkedHashMap<>();
+
+    private final Map<String, OpenLoopDriver.Result> results = new LinkedHashMap<>();
+
+    /**
+     * Adds a run, replacing any earlier run of the same workload.
+     */
+    void add(OpenLoopDriver.Result result) {
+        results.put(result.workload().id(), result);
+        summaries.put(result.workload().id(), Summary.of(result));
+    }
+
+    Map<String, Summary> summaries() {
+        return summaries;
+    }
+
+    /**
+     * Writes {@code report.json} and, per workload, the full response time distribution in HdrHistogram's
+     * percentile format ({@code <workload>.hgrm}, in milliseconds) for plotting.
+     */
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        writeSummaries(directory.resolve("report.json"));
+        for (OpenLoopDriver.Result result : results.values()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(result.workload().id() + ".hgrm")))) {
+                result.responseTimes().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    void writeSummaries(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        OBJECT_MAPPER.writeValue(file.toFile(), summaries);
+    }
+
+    static Map<String, Summary> readSummaries(Path file) throws IOException {
+        return OBJECT_MAPPER.readValue(file.toFile(), new TypeReference<LinkedHashMap<String, Summary>>() {
+        });
+    }
+
+    /**
+     * Lists, per workload, the ways this run is worse than the baseline: a median or p99 response time above
+     * {@code baseline * (1 + latencyTolerance) + latencySlackMillis}, or an error or shed rate more than
+     * {@code rateSlack} above the baseline's. Workloads missing from the baseline are not compared.
+     */
+    Map<String, List<String>> regressions(Map<String, Summary> baseline, double latencyTolerance,
+                                          double latencySlackMillis, double rateSlack) {
+        Map<String, List<String>> regressions = new LinkedHashMap<>();
+        summaries.forEach((workload, current) -> {
+            Summary expected = baseline.get(workload);
+            if (expected == null) {
+                return;
+            }
+            List<String> found = new ArrayList<>();
+            checkLatency(found, workload, "p50", current.p50(), expected.p50(), latencyTolerance, latencySlackMillis);
+            checkLatency(found, workload, "p99", current.p99(), expected.p99(), latencyTolerance, latencySlackMillis);
+            checkRate(found, workload, "error rate", current.errorRate(), expected.errorRate(), rateSlack);
+            checkRate(found, workload, "shed rate", current.shedRate(), expected.shedRate(), rateSlack);
+            if (!found.isEmpty()) {
+                regressions.put(workload, found);
+            }
+        });
+        return regressions;
+    }
+
+    private static void checkLatency(List<String> regressions, String workload, String metric, double current,
+                                     double expected, double tolerance, double slack) {
+        double limit = expected * (1 + tolerance) + slack;
+        if (current > limit) {
+            regressions.add(String.format("%s %s %.2f ms exceeds %.2f ms (baseline %.2f ms)", workload, metric, current, limit, expected));
+        }
+    }
+
+    private static void checkRate(List<String> regressions, String workload, String metric, double current,
+                                  double expected, double slack) {
+        if (current > expected + slack) {
+            regressions.add(String.format("%s %s %.4f exceeds baseline %.4f by more than %.4f", workload, metric, current, expected, slack));
+        }
+    }
+
+    String format() {
+        StringBuilder table = new StringBuilder(String.format("%-12s %9s %8s %9s %9s %9s %9s %9s %9s %8s %8s%n",
+                "workload", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99", "errors", "shed"));
+        summaries.forEach((workload, summary) -> table.append(String.format("%-12s %9d %8.0f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %8.4f %8.4f%n",
+                workload, summary.requests(), summary.throughput(), summary.p50(), summary.p90(), summary.p99(),
+                summary.p999(), summary.max(), summary.serviceP99(), summary.errorRate(), summary.shedRate())));
+        for (OpenLoopDriver.Result result : results.values()) {
+            result.operationResponseTimes().forEach((operation, histogram) -> {
+                if (histogram.getTotalCount() > 0) {
+                    table.append(String.format("  %-12s %-10s %9d requests, p50 %.2f ms, p99 %.2f ms%n", result.workload().id(), operation,
+                            histogram.getTotalCount(), millis(histogram.getValueAtPercentile(50)),
+                            millis(histogram.getValueAtPercentile(99))));
+                }
+            });
+        }
+        return table.toString();
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / NANOS_PER_MILLI);
+    }
+
+    private static double ratio(long count, long total) {
+        return total == 0 ? 0 : count / (double) total;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100d;
+    }
+}
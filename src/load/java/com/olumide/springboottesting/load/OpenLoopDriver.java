@@ -0,0 +1,181 @@
+package com.olumide.springboottesting.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP client: requests are scheduled at a fixed rate whether or not earlier ones have completed, and each
+ * is sent on its own virtual thread. Response time is measured from the scheduled start, not from the moment the
+ * request went out, so a server stall is charged to every request that should have been sent during it rather than
+ * only to the one that was waiting (no coordinated omission). Service time, from the actual send, is kept alongside.
+ * <p>
+ * At most {@code maxInFlight} requests are outstanding; past that the scheduler waits, which delays sends but, as
+ * latency counts from the schedule, does not hide the wait.
+ */
+final class OpenLoopDriver implements AutoCloseable {
+
+    private final HttpClient httpClient;
+
+    private final String base;
+
+    private final long[] ids;
+
+    private final int maxInFlight;
+
+    private final Duration requestTimeout;
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    OpenLoopDriver(String base, long[] ids, int maxInFlight, Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.base = base;
+        this.ids = ids;
+        this.maxInFlight = maxInFlight;
+        this.requestTimeout = requestTimeout;
+    }
+
+    Result run(Workload workload, double rate, Duration duration) throws InterruptedException {
+        Result result = new Result(workload, rate, duration);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        double intervalNanos = 1_000_000_000d / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduled = start + (long) (i * intervalNanos);
+                if (scheduled >= end) {
+                    break;
+                }
+                for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                inFlight.acquire();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Workload.Operation operation = workload.pick(random);
+                HttpRequest request = operation.request(base, ids[random.nextInt(ids.length)],
+                        "load-" + runId + "-" + sequence.incrementAndGet() + "@load.test");
+                executor.execute(() -> {
+                    try {
+                        send(operation, request, scheduled, result);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    private void send(Workload.Operation operation, HttpRequest request, long scheduled, Result result) {
+        long sent = System.nanoTime();
+        int status;
+        try {
+            status = httpClient.send(HttpRequest.newBuilder(request, (name, value) -> true).timeout(requestTimeout).build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            status = -1;
+        }
+        long completed = System.nanoTime();
+        result.record(operation, status, completed - scheduled, completed - sent);
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+
+    /**
+     * Latencies in nanoseconds of one run. 429 and 503 are counted as shed (the server's traffic controls turning
+     * work away); any other status outside 2xx, a timeout, or a connection failure as an error.
+     */
+    static final class Result {
+
+        private final Workload workload;
+
+        private final double targetRate;
+
+        private final Duration duration;
+
+        private final Histogram responseTimes = new ConcurrentHistogram(3);
+
+        private final Histogram serviceTimes = new ConcurrentHistogram(3);
+
+        private final Map<Workload.Operation, Histogram> operationResponseTimes = new EnumMap<>(Workload.Operation.class);
+
+        private final LongAdder shed = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private Result(Workload workload, double targetRate, Duration duration) {
+            this.workload = workload;
+            this.targetRate = targetRate;
+            this.duration = duration;
+            for (Workload.Operation operation : Workload.Operation.values()) {
+                operationResponseTimes.put(operation, new ConcurrentHistogram(3));
+            }
+        }
+
+        private void record(Workload.Operation operation, int status, long responseTime, long serviceTime) {
+            responseTimes.recordValue(responseTime);
+            serviceTimes.recordValue(serviceTime);
+            operationResponseTimes.get(operation).recordValue(responseTime);
+            if (status == 429 || status == 503) {
+                shed.increment();
+            } else if (status < 200 || status >= 300) {
+                errors.increment();
+            }
+        }
+
+        Workload workload() {
+            return workload;
+        }
+
+        double targetRate() {
+            return targetRate;
+        }
+
+        Duration duration() {
+            return duration;
+        }
+
+        Histogram responseTimes() {
+            return responseTimes;
+        }
+
+        Histogram serviceTimes() {
+            return serviceTimes;
+        }
+
+        Map<Workload.Operation, Histogram> operationResponseTimes() {
+            return operationResponseTimes;
+        }
+
+        long shed() {
+            return shed.sum();
+        }
+
+        long errors() {
+            return errors.sum();
+        }
+    }
+}
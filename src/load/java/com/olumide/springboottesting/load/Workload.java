@@ -0,0 +1,97 @@
+package com.olumide.springboottesting.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Request mixes driven by {@link EmployeeLoadIT}. Each scheduled request picks its operation at random, with
+ * probability proportional to the operation's weight in the mix.
+ */
+enum Workload {
+
+    READ_HEAVY("read-heavy", Map.of(Operation.GET_BY_ID, 90, Operation.PAGE, 5, Operation.CREATE, 5)),
+    WRITE_HEAVY("write-heavy", Map.of(Operation.CREATE, 50, Operation.PATCH, 30, Operation.GET_BY_ID, 20)),
+    LIST_HEAVY("list-heavy", Map.of(Operation.PAGE, 70, Operation.GET_BY_ID, 30));
+
+    enum Operation {
+
+        GET_BY_ID {
+            @Override
+            HttpRequest request(String base, long id, String email) {
+                return HttpRequest.newBuilder(URI.create(base + "/" + id)).GET().build();
+            }
+        },
+        PAGE {
+            @Override
+            HttpRequest request(String base, long id, String email) {
+                return HttpRequest.newBuilder(URI.create(base + "/page?size=50")).GET().build();
+            }
+        },
+        CREATE {
+            @Override
+            HttpRequest request(String base, long id, String email) {
+                return json(HttpRequest.newBuilder(URI.create(base)), "POST",
+                        "{\"firstName\":\"load\",\"lastName\":\"test\",\"email\":\"" + email + "\"}");
+            }
+        },
+        PATCH {
+            @Override
+            HttpRequest request(String base, long id, String email) {
+                return json(HttpRequest.newBuilder(URI.create(base + "/" + id)), "PATCH",
+                        "{\"lastName\":\"patched\"}");
+            }
+        };
+
+        /**
+         * @param base  the employees collection URI
+         * @param id    a seeded employee, for operations on one
+         * @param email an address no other request of the run uses, for operations creating one
+         */
+        abstract HttpRequest request(String base, long id, String email);
+
+        private static HttpRequest json(HttpRequest.Builder builder, String method, String body) {
+            return builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    }
+
+    private final String id;
+
+    private final Operation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    Workload(String id, Map<Operation, Integer> weights) {
+        this.id = id;
+        Map<Operation, Integer> ordered = new EnumMap<>(weights);
+        this.operations = ordered.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += ordered.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    String id() {
+        return id;
+    }
+
+    Operation pick(Random random) {
+        int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = Arrays.binarySearch(cumulativeWeights, point + 1);
+        return operations[index >= 0 ? index : -index - 1];
+    }
+
+    static Workload of(String id) {
+        return Arrays.stream(values())
+                .filter(workload -> workload.id.equals(id))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown workload " + id));
+    }
+}
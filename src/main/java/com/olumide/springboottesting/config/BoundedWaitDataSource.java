@@ -0,0 +1,48 @@
+package com.olumide.springboottesting.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Caps how many callers may queue for a Hikari connection. With virtual threads there is no request thread
+ * pool to bound concurrency any more, so the connection pool is the limiter: once {@code maxWaiting} callers
+ * are already waiting, further ones fail immediately instead of piling up until connection-timeout.
+ */
+public class BoundedWaitDataSource extends DelegatingDataSource {
+
+    private final HikariDataSource hikariDataSource;
+
+    private final int maxWaiting;
+
+    public BoundedWaitDataSource(HikariDataSource hikariDataSource, int maxWaiting) {
+        super(hikariDataSource);
+        this.hikariDataSource = hikariDataSource;
+        this.maxWaiting = maxWaiting;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkWaitQueue();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        checkWaitQueue();
+        return super.getConnection(username, password);
+    }
+
+    private void checkWaitQueue() throws SQLTransientConnectionException {
+        // the pool starts lazily, so there is nothing to measure before the first connection
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        if (pool != null && pool.getThreadsAwaitingConnection() >= maxWaiting) {
+            throw new SQLTransientConnectionException(String.format(
+                    "%s - Connection wait queue is full (%d waiting)", hikariDataSource.getPoolName(), maxWaiting));
+        }
+    }
+}
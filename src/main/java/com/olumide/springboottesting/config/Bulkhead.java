@@ -0,0 +1,20 @@
+package com.olumide.springboottesting.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a handler method in a named bulkhead: at most {@code employee.bulkhead.<name>} of its requests run at
+ * once, and the rest are refused with 503 straight away instead of queueing for a connection. Handlers without
+ * one, or naming a bulkhead with no configured size, are only bounded by the connection pool.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Bulkhead {
+
+    String value();
+}
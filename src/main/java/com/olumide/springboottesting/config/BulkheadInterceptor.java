@@ -0,0 +1,54 @@
+package com.olumide.springboottesting.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * Enforces {@link Bulkhead} sizes. A permit is held from the first dispatch until the request completes, async
+ * streaming included, so a streamed export counts against its bulkhead for as long as it holds a connection.
+ */
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".permit";
+
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private final Bulkheads bulkheads;
+
+    BulkheadInterceptor(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod method) || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        Bulkhead bulkhead = method.getMethodAnnotation(Bulkhead.class);
+        if (bulkhead == null) {
+            return true;
+        }
+        if (!bulkheads.tryAcquire(bulkhead.value())) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent " + bulkhead.value() + " requests");
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, bulkhead.value());
+        return true;
+    }
+
+    // not called when the handler went async; the dispatch that finishes the request releases instead
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof String name) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            bulkheads.release(name);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.olumide.springboottesting.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The named bulkheads sized by {@code employee.bulkhead.<name>}. Whole handlers enter one through {@link Bulkhead}
+ * and {@link BulkheadInterceptor}; code that only sometimes reaches the database, such as an id lookup that may be
+ * answered by the cache, takes a permit around that part alone.
+ */
+public class Bulkheads {
+
+    public static final String LOOKUP = "lookup";
+
+    private final Map<String, Semaphore> bulkheads = new HashMap<>();
+
+    private final Map<String, Counter> rejected = new HashMap<>();
+
+    public Bulkheads(Map<String, Integer> sizes, MeterRegistry meterRegistry) {
+        sizes.forEach((name, size) -> {
+            Semaphore permits = new Semaphore(size);
+            bulkheads.put(name, permits);
+            Gauge.builder("employee.bulkhead.active", permits, semaphore -> size - semaphore.availablePermits())
+                    .description("Requests running in the bulkhead")
+                    .tag("bulkhead", name)
+                    .register(meterRegistry);
+            rejected.put(name, Counter.builder("employee.bulkhead.rejected")
+                    .description("Requests refused because their bulkhead was full")
+                    .tag("bulkhead", name)
+                    .register(meterRegistry));
+        });
+    }
+
+    /**
+     * Takes a permit, or returns false when the bulkhead is full. A bulkhead with no configured size always admits.
+     */
+    public boolean tryAcquire(String name) {
+        Semaphore permits = bulkheads.get(name);
+        if (permits == null || permits.tryAcquire()) {
+            return true;
+        }
+        rejected.get(name).increment();
+        return false;
+    }
+
+    public void release(String name) {
+        Semaphore permits = bulkheads.get(name);
+        if (permits != null) {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.olumide.springboottesting.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EMPLOYEE_CACHE = "employees";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${employee.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${employee.cache.ttl:10m}") Duration ttl,
+                                     @Value("${employee.cache.negative-ttl:5s}") Duration negativeTtl,
+                                     @Value("${employee.cache.write-guard:10s}") Duration writeGuard) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                // fills may come from a lagging replica; see EmployeeCacheInvalidator
+                return EMPLOYEE_CACHE.equals(name)
+                        ? new WriteGuardedCache(name, cache, writeGuard, isAllowNullValues())
+                        : super.adaptCaffeineCache(name, cache);
+            }
+        };
+        cacheManager.registerCustomCache(EMPLOYEE_CACHE, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NegativeAwareExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    /**
+     * Expires cached misses (stored by Spring as {@link NullValue}) sooner than cached employees, so a 404
+     * is absorbed for a short while without hiding a row created shortly after.
+     */
+    static class NegativeAwareExpiry implements Expiry<Object, Object> {
+
+        private final long ttlNanos;
+
+        private final long negativeTtlNanos;
+
+        NegativeAwareExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return value instanceof NullValue ? negativeTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.olumide.springboottesting.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per client, each kept as one {@link AtomicLong}: the time at which the client's bucket would be
+ * full again (the generic cell rate algorithm). Taking a token is a compare-and-set on that client's value alone,
+ * and the buckets live in a Caffeine map, so no request waits on a lock shared with other clients.
+ * <p>
+ * A bucket left idle for a full burst is indistinguishable from a new one, so idle buckets are evicted after that
+ * long; {@code maxClients} bounds the map against floods of one-off clients.
+ */
+class ClientRateLimiter {
+
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    private final LongSupplier clock;
+
+    private final Cache<String, AtomicLong> buckets;
+
+    ClientRateLimiter(double permitsPerSecond, int burst, long maxClients, LongSupplier clock) {
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .build();
+    }
+
+    /**
+     * Takes a token for the client. Returns zero when one was available, otherwise how long until there will be
+     * one, in nanoseconds.
+     */
+    long tryAcquire(String client) {
+        AtomicLong full = buckets.get(client, key -> new AtomicLong(Long.MIN_VALUE));
+        long now = clock.getAsLong();
+        while (true) {
+            long current = full.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (full.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.olumide.springboottesting.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tells API clients apart by what they cannot choose themselves. A request carrying one of the API keys issued
+ * through {@code employee.clients.api-keys.<client>} is that client, wherever it connects from; otherwise the
+ * authenticated principal when the request has one, otherwise the client's address. Behind a proxy every
+ * connection comes from the proxy, so the address is then read from {@code forwardedHeader}, if configured; only
+ * the last entry counts, being the one the trusted proxy added, as anything before it came from the client.
+ * A key that was never issued is ignored rather than trusted, since a caller could mint a new identity per request.
+ */
+class ClientResolver {
+
+    static final String API_KEY_HEADER = "X-API-Key";
+
+    private final String forwardedHeader;
+
+    private final Map<String, String> clientsByApiKey = new HashMap<>();
+
+    /**
+     * @param forwardedHeader header the proxy in front of the application sets to the client address, such as
+     *                        {@code X-Forwarded-For}; blank when requests arrive directly
+     * @param apiKeys         the issued API keys by the name of the client they were issued to
+     */
+    ClientResolver(String forwardedHeader, Map<String, String> apiKeys) {
+        this.forwardedHeader = forwardedHeader == null || forwardedHeader.isBlank() ? null : forwardedHeader;
+        apiKeys.forEach((client, apiKey) -> {
+            if (apiKey != null && !apiKey.isBlank()) {
+                clientsByApiKey.put(apiKey, client);
+            }
+        });
+    }
+
+    static ClientResolver from(Environment environment) {
+        Binder binder = Binder.get(environment);
+        return new ClientResolver(binder.bind("employee.clients.forwarded-header", String.class).orElse(null),
+                binder.bind("employee.clients.api-keys", Bindable.mapOf(String.class, String.class)).orElse(Map.of()));
+    }
+
+    String resolve(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        String client = apiKey == null ? null : clientsByApiKey.get(apiKey);
+        if (client != null) {
+            return "key:" + client;
+        }
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        if (forwardedHeader != null) {
+            String forwarded = request.getHeader(forwardedHeader);
+            if (forwarded != null && !forwarded.isBlank()) {
+                return "ip:" + forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
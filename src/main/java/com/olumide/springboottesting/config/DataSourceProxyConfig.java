@@ -0,0 +1,48 @@
+package com.olumide.springboottesting.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the pooled DataSource so every statement feeds the per-request statement count and, when
+ * {@code employee.slow-query.enabled} is set, the sampled slow-query log. A Hikari pool is additionally
+ * given a bounded wait queue ({@code employee.db.max-waiting}).
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // the replica pools are only reached through the routing DataSource, which is wrapped itself
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource
+                        || bean instanceof ReplicaDataSource) {
+                    return bean;
+                }
+                if (dataSource instanceof HikariDataSource hikariDataSource) {
+                    dataSource = new BoundedWaitDataSource(hikariDataSource,
+                            environment.getProperty("employee.db.max-waiting", Integer.class, 200));
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new StatementCounter());
+                if (environment.getProperty("employee.slow-query.enabled", Boolean.class, false)) {
+                    builder.listener(new SlowQueryLogger(
+                            environment.getProperty("employee.slow-query.threshold", Duration.class, Duration.ofMillis(200)),
+                            environment.getProperty("employee.slow-query.sample-rate", Double.class, 1.0)));
+                }
+                return builder.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.olumide.springboottesting.config;
+
+import com.olumide.springboottesting.dto.EmployeeChangeEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Tells the employee cache about every committed change, with the version written, so that a lookup which read
+ * the row before the commit (or from a replica still behind it) cannot put the old row back.
+ */
+@Profile("!reactive")
+@Component
+public class EmployeeCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    public EmployeeCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(EmployeeChangeEvent event) {
+        if (!(cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE) instanceof WriteGuardedCache cache)) {
+            return;
+        }
+        switch (event.type()) {
+            case CREATED, UPDATED -> cache.written(event.id(),
+                    event.employee().version() == null ? 0L : event.employee().version());
+            case DELETED -> cache.deleted(event.id());
+            case RESET -> cache.cleared();
+        }
+    }
+}
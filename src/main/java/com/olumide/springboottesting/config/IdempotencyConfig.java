@@ -0,0 +1,27 @@
+package com.olumide.springboottesting.config;
+
+import com.olumide.springboottesting.repository.IdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+@Profile("!reactive")
+@Configuration
+public class IdempotencyConfig {
+
+    // declared here rather than as a component so web slice tests, which have no database, don't pick it up
+    @Bean
+    public IdempotencyFilter idempotencyFilter(IdempotencyKeyRepository idempotencyKeyRepository,
+                                               @Value("${employee.idempotency.ttl:24h}") Duration ttl,
+                                               @Value("${employee.idempotency.claim-timeout:1m}") Duration claimTimeout,
+                                               @Value("${employee.idempotency.wait-timeout:5s}") Duration waitTimeout,
+                                               @Value("${employee.idempotency.max-entries:10000}") long maxEntries,
+                                               Environment environment) {
+        return new IdempotencyFilter(idempotencyKeyRepository, ClientResolver.from(environment), ttl, claimTimeout,
+                waitTimeout, maxEntries);
+    }
+}
@@ -0,0 +1,310 @@
+package com.olumide.springboottesting.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.olumide.springboottesting.dto.IdempotentResponse;
+import com.olumide.springboottesting.repository.IdempotencyKeyRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes POST requests carrying an {@code Idempotency-Key} header safe to retry. The first request with a key runs
+ * and its response bytes are recorded; later requests from the same client with the same key and path get those
+ * bytes back, marked with {@code Idempotent-Replayed}, without reaching the controller. Keys are scoped to the
+ * client ({@link ClientResolver}), so one client's key never answers another's request, and a retry whose body
+ * differs from the first request's (compared by SHA-256) gets 422 rather than a response to something else.
+ * <p>
+ * Keys live in a bounded in-memory map for the TTL, backed by the {@code idempotency_keys} table for restarts and
+ * other instances. A duplicate arriving while the first request is still running on this instance waits up to
+ * {@code waitTimeout} for its response; one still running after that, or claimed by another instance, gets 409
+ * with {@code Retry-After}, so duplicates never pile up behind a slow request holding a thread each. Only successful
+ * responses are recorded: error bodies are rendered by the container after this filter returns, so after an error
+ * the key is released and a retry runs again.
+ * <p>
+ * Runs after the {@link RateLimitFilter}, so a throttled client never gets as far as claiming a key.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter implements Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private final IdempotencyKeyRepository keys;
+
+    private final ClientResolver clients;
+
+    private final Duration ttl;
+
+    private final Duration claimTimeout;
+
+    private final Duration waitTimeout;
+
+    // completed with null when the request holding the key gave it up, telling waiters to try again themselves
+    private final Cache<String, CompletableFuture<IdempotentResponse>> recent;
+
+    IdempotencyFilter(IdempotencyKeyRepository keys, ClientResolver clients, Duration ttl, Duration claimTimeout,
+                      Duration waitTimeout, long maxEntries) {
+        this.keys = keys;
+        this.clients = clients;
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+        this.waitTimeout = waitTimeout;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public int getOrder() {
+        return RateLimitFilter.ORDER + 1;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (header.isBlank() || header.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(),
+                    String.format("%s must be 1 to %d characters", IDEMPOTENCY_KEY_HEADER, MAX_KEY_LENGTH));
+            return;
+        }
+        // the same key sent by another client, or to another endpoint, is a different request
+        String key = clients.resolve(request) + " " + request.getRequestURI() + " " + header;
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            CompletableFuture<IdempotentResponse> claim = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> existing = recent.asMap().putIfAbsent(key, claim);
+            if (existing == null) {
+                runOnce(key, claim, request, response, chain);
+                return;
+            }
+            IdempotentResponse recorded;
+            try {
+                recorded = existing.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                sendInProgress(response);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendInProgress(response);
+                return;
+            } catch (ExecutionException e) {
+                // claims are only ever completed normally
+                throw new IllegalStateException(e.getCause());
+            }
+            if (recorded != null) {
+                replayIfSameBody(recorded, request, response);
+                return;
+            }
+        }
+    }
+
+    private void runOnce(String key, CompletableFuture<IdempotentResponse> claim, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        IdempotentResponse recorded = null;
+        boolean claimed = false;
+        try {
+            claimed = keys.claim(key, ttl, claimTimeout);
+            if (!claimed) {
+                Optional<IdempotentResponse> stored = keys.findResponse(key);
+                if (stored.isPresent()) {
+                    recorded = stored.get();
+                    replayIfSameBody(recorded, request, response);
+                } else {
+                    sendInProgress(response);
+                }
+                return;
+            }
+            // the body is hashed as the handler reads it, so a large upload is still streamed rather than buffered
+            HashingRequest hashing = new HashingRequest(request);
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            try {
+                chain.doFilter(hashing, wrapper);
+                if (HttpStatusCode.valueOf(wrapper.getStatus()).is2xxSuccessful()) {
+                    IdempotentResponse outcome = new IdempotentResponse(wrapper.getStatus(), wrapper.getContentType(),
+                            wrapper.getContentAsByteArray(), hashing.hash());
+                    keys.saveResponse(key, outcome);
+                    recorded = outcome;
+                }
+            } finally {
+                wrapper.copyBodyToResponse();
+            }
+        } finally {
+            if (recorded == null) {
+                recent.asMap().remove(key, claim);
+                if (claimed) {
+                    release(key);
+                }
+            }
+            claim.complete(recorded);
+        }
+    }
+
+    private static void sendInProgress(HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.sendError(HttpStatus.CONFLICT.value(), "A request with this Idempotency-Key is in progress");
+    }
+
+    private void release(String key) {
+        try {
+            keys.release(key);
+        } catch (RuntimeException e) {
+            // the claim times out on its own; don't hide the request's own outcome behind this one
+            log.warn("Could not release Idempotency-Key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static void replayIfSameBody(IdempotentResponse recorded, HttpServletRequest request,
+                                         HttpServletResponse response) throws IOException {
+        if (recorded.requestHash() != null
+                && !MessageDigest.isEqual(recorded.requestHash(), new HashingRequest(request).hash())) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    String.format("%s was already used with a different request body", IDEMPOTENCY_KEY_HEADER));
+            return;
+        }
+        replay(recorded, response);
+    }
+
+    private static void replay(IdempotentResponse recorded, HttpServletResponse response) throws IOException {
+        response.setStatus(recorded.status());
+        if (recorded.contentType() != null) {
+            response.setContentType(recorded.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(recorded.body().length);
+        response.getOutputStream().write(recorded.body());
+    }
+
+    @Scheduled(fixedDelayString = "${employee.idempotency.prune-interval:PT1H}")
+    public void pruneExpired() {
+        int pruned = keys.deleteOlderThan(ttl);
+        if (pruned > 0) {
+            log.info("Pruned {} expired idempotency keys", pruned);
+        }
+    }
+
+    /**
+     * Feeds every body byte read through it into a SHA-256 digest.
+     */
+    private static final class HashingRequest extends HttpServletRequestWrapper {
+
+        private final MessageDigest digest;
+
+        private ServletInputStream body;
+
+        HashingRequest(HttpServletRequest request) {
+            super(request);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (body == null) {
+                body = new HashingInputStream(super.getInputStream(), digest);
+            }
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            Charset charset = getCharacterEncoding() == null ? StandardCharsets.ISO_8859_1 : Charset.forName(getCharacterEncoding());
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        /** Reads whatever the handler left of the body, then returns the digest of all of it. */
+        byte[] hash() throws IOException {
+            getInputStream().transferTo(OutputStream.nullOutputStream());
+            return digest.digest();
+        }
+    }
+
+    private static final class HashingInputStream extends ServletInputStream {
+
+        private final ServletInputStream in;
+
+        private final MessageDigest digest;
+
+        HashingInputStream(ServletInputStream in, MessageDigest digest) {
+            this.in = in;
+            this.digest = digest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                digest.update((byte) b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read > 0) {
+                digest.update(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return in.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return in.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            in.setReadListener(readListener);
+        }
+    }
+}
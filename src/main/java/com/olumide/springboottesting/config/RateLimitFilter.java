@@ -0,0 +1,57 @@
+package com.olumide.springboottesting.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refuses requests from a client that has used up its token bucket with 429 and the number of seconds until its
+ * next token in {@code Retry-After}. Clients are told apart by {@link ClientResolver}.
+ * <p>
+ * A filter rather than an interceptor, so it runs ahead of the other filters that do work per request, such as
+ * the {@link IdempotencyFilter}'s claim in the database; only the request observation wraps it, so refusals still
+ * show up in the HTTP metrics.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    private final ClientRateLimiter limiter;
+
+    private final ClientResolver clients;
+
+    private final Counter rejected;
+
+    RateLimitFilter(ClientRateLimiter limiter, ClientResolver clients, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.clients = clients;
+        this.rejected = Counter.builder("employee.rate-limit.rejected")
+                .description("Requests refused because the client ran out of tokens")
+                .register(meterRegistry);
+    }
+
+    // async and error dispatches are skipped by OncePerRequestFilter: a request is counted once, when it arrives
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = limiter.tryAcquire(clients.resolve(request));
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        rejected.increment();
+        long retryAfter = Math.ceilDiv(waitNanos, TimeUnit.SECONDS.toNanos(1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+    }
+}
@@ -0,0 +1,174 @@
+package com.olumide.springboottesting.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Hands out connections for read-only transactions: round-robin over the replicas that passed their last
+ * health check, falling back to the primary when none did, when a replica refuses a connection, or while the
+ * current request is pinned to the primary for read-your-writes.
+ * <p>
+ * A replica is healthy when the lag query answers within the check and reports no more than {@code maxLag}
+ * seconds. The default query reads PostgreSQL's replay position; local setups on H2 can point it at anything
+ * that returns a number.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    static final String POSTGRES_LAG_QUERY = """
+            select case when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else extract(epoch from now() - pg_last_xact_replay_timestamp()) end""";
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final double maxLagSeconds;
+
+    private final String lagQuery;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaDataSource(DataSource primary, List<DataSource> replicas, Duration maxLag, String lagQuery) {
+        this.primary = primary;
+        this.replicas = IntStream.range(0, replicas.size()).mapToObj(i -> new Replica(replicas.get(i), i)).toList();
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.lagQuery = lagQuery;
+    }
+
+    /**
+     * Routes every connection taken on this thread to the primary until {@link #unpin()}.
+     */
+    static void pinToPrimary() {
+        PRIMARY_ONLY.set(Boolean.TRUE);
+    }
+
+    static void unpin() {
+        PRIMARY_ONLY.remove();
+    }
+
+    /**
+     * Whether this thread is pinned to the primary. Work handed to another thread on behalf of the request takes
+     * the decision along and applies it there with {@link #onPrimary}.
+     */
+    public static boolean isPinnedToPrimary() {
+        return PRIMARY_ONLY.get() != null;
+    }
+
+    /**
+     * Runs {@code work} with this thread pinned to the primary, restoring the previous routing afterwards.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (isPinnedToPrimary()) {
+            return work.get();
+        }
+        pinToPrimary();
+        try {
+            return work.get();
+        } finally {
+            unpin();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (PRIMARY_ONLY.get() == null) {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    // don't wait for the next check to stop routing to a replica that refuses connections
+                    replica.healthy = false;
+                    log.warn("Replica {} refused a connection, marked unhealthy: {}", replica.index, e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Replica routing only supports the configured credentials");
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.replicas.health-check-interval:PT5S}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(Math.max(1, (int) Math.ceil(maxLagSeconds)));
+                try (ResultSet rs = statement.executeQuery(lagQuery)) {
+                    healthy = rs.next() && rs.getDouble(1) <= maxLagSeconds;
+                }
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.info("Replica {} is now {}", replica.index, healthy ? "in rotation" : "out of rotation");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public long healthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            close(replica.dataSource);
+        }
+        close(primary);
+    }
+
+    private static void close(DataSource dataSource) throws Exception {
+        DataSource target = dataSource instanceof DelegatingDataSource delegating ? delegating.getTargetDataSource() : dataSource;
+        if (target instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+
+        private final int index;
+
+        // starts out of rotation until the first check has measured its lag
+        private volatile boolean healthy;
+
+        Replica(DataSource dataSource, int index) {
+            this.dataSource = dataSource;
+            this.index = index;
+        }
+    }
+}
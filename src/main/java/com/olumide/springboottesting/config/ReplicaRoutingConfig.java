@@ -0,0 +1,98 @@
+package com.olumide.springboottesting.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opt-in ({@code employee.replicas.enabled}) read scaling: read-only transactions are served by the replicas
+ * listed in {@code employee.replicas.urls}, everything else by {@code spring.datasource.url}.
+ * <p>
+ * Routing is done by {@link LazyConnectionDataSourceProxy}, which only fetches the physical connection at the first
+ * statement, after the transaction manager has marked it read-only, and then takes it from the read-only
+ * DataSource. The connection pools are created here rather than as beans, so the statement-counting wrapper in
+ * {@link DataSourceProxyConfig} applies once, to the routing DataSource.
+ */
+@Profile("!reactive")
+@Configuration
+@ConditionalOnProperty(name = "employee.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+
+    private final Environment environment;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ReplicaRoutingConfig(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaDataSource replicaDataSource(DataSourceProperties properties) {
+        Binder binder = Binder.get(environment);
+        int maxWaiting = environment.getProperty("employee.db.max-waiting", Integer.class, 200);
+        List<String> urls = binder.bind("employee.replicas.urls", Bindable.listOf(String.class)).orElse(List.of());
+        String username = environment.getProperty("employee.replicas.username", properties.determineUsername());
+        String password = environment.getProperty("employee.replicas.password", properties.determinePassword());
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = pool(properties, binder, "replica-" + i);
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setReadOnly(true);
+            replicas.add(new BoundedWaitDataSource(replica, maxWaiting));
+        }
+        ReplicaDataSource replicaDataSource = new ReplicaDataSource(
+                new BoundedWaitDataSource(pool(properties, binder, "primary"), maxWaiting),
+                replicas,
+                environment.getProperty("employee.replicas.max-lag", Duration.class, Duration.ofSeconds(5)),
+                environment.getProperty("employee.replicas.lag-query", ReplicaDataSource.POSTGRES_LAG_QUERY));
+        meterRegistry.ifAvailable(meters -> Gauge.builder("employee.db.replicas.healthy", replicaDataSource, ReplicaDataSource::healthyReplicas)
+                .description("Replicas currently in the read rotation")
+                .register(meters));
+        return replicaDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaDataSource.getPrimary());
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(
+                environment.getProperty("employee.replicas.read-your-writes", Duration.class, Duration.ofSeconds(5))));
+    }
+
+    private HikariDataSource pool(DataSourceProperties properties, Binder binder, String poolName) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        // not beans, so Boot's pool metrics don't see them; register them under their pool names instead
+        meterRegistry.ifAvailable(meters -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meters)));
+        return dataSource;
+    }
+}
@@ -0,0 +1,44 @@
+package com.olumide.springboottesting.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Logs a sample of the statements that ran longer than the threshold. Replaces {@code spring.jpa.show-sql},
+ * which printed every statement.
+ */
+public class SlowQueryLogger implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLogger.class);
+
+    private final long thresholdMillis;
+
+    private final double sampleRate;
+
+    public SlowQueryLogger(Duration threshold, double sampleRate) {
+        this.thresholdMillis = threshold.toMillis();
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMillis || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        log.warn("Slow query took {} ms (success={}, batch={}): {}",
+                execInfo.getElapsedTime(), execInfo.isSuccess(), execInfo.isBatch(), sql);
+    }
+}
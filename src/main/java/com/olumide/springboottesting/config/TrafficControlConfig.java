@@ -0,0 +1,80 @@
+package com.olumide.springboottesting.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Map;
+
+/**
+ * Per-client rate limits and per-endpoint bulkheads for the API, checked ahead of the work they protect so a
+ * refused request costs no database work: the rate limit as a filter ahead of the idempotency claim, the
+ * bulkheads ahead of every other interceptor. Bulkhead sizes are read from {@code employee.bulkhead.<name>}.
+ * <p>
+ * Rate limiting is on unless {@code employee.rate-limit.enabled} is false. It keys on the client an issued API key
+ * belongs to, else the authenticated principal, else the client address (see {@link ClientResolver}); behind a
+ * proxy that address is only meaningful once {@code employee.clients.forwarded-header} names the header the proxy
+ * sets.
+ */
+@Configuration
+public class TrafficControlConfig implements WebMvcConfigurer {
+
+    private final Environment environment;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final double permitsPerSecond;
+
+    private final int burst;
+
+    private final long maxClients;
+
+    public TrafficControlConfig(Environment environment, ObjectProvider<MeterRegistry> meterRegistry,
+                                @Value("${employee.rate-limit.permits-per-second:100}") double permitsPerSecond,
+                                @Value("${employee.rate-limit.burst:200}") int burst,
+                                @Value("${employee.rate-limit.max-clients:100000}") long maxClients) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxClients = maxClients;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "employee.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter() {
+        ClientRateLimiter limiter = new ClientRateLimiter(permitsPerSecond, burst, maxClients, System::nanoTime);
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(new RateLimitFilter(limiter,
+                ClientResolver.from(environment), meterRegistry.getIfAvailable(SimpleMeterRegistry::new)));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(RateLimitFilter.ORDER);
+        return registration;
+    }
+
+    @Bean
+    public Bulkheads bulkheads() {
+        Map<String, Integer> sizes = Binder.get(environment)
+                .bind("employee.bulkhead", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of());
+        // web slice tests run without a registry
+        return new Bulkheads(sizes, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new BulkheadInterceptor(bulkheads()))
+                .addPathPatterns("/api/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
@@ -0,0 +1,82 @@
+package com.olumide.springboottesting.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.olumide.springboottesting.dto.EmployeeView;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+
+/**
+ * The employee cache, refusing fills older than a committed write it has been told about. Lookups may be served
+ * by a replica that has not replayed the write yet, or may simply have read the row before the write; either way
+ * the result can reach the cache after the write evicted the entry, and would then stay for the whole ttl.
+ * <p>
+ * A write is remembered for {@code guard}, which has to cover the replicas' lag: within it, only a view at least
+ * as new as the written version is stored, and a miss only after a delete. After a clear nothing is stored for
+ * that long. Checking and storing happen in one atomic step on the key, so a fill either lands before the write's
+ * eviction (and is removed by it) or sees the write.
+ */
+public class WriteGuardedCache extends CaffeineCache {
+
+    static final long DELETED = Long.MAX_VALUE;
+
+    private final Cache<Object, Long> writes;
+
+    private final long guardNanos;
+
+    private volatile long clearedUntil = System.nanoTime();
+
+    public WriteGuardedCache(String name, Cache<Object, Object> cache, Duration guard, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+        this.guardNanos = guard.toNanos();
+        this.writes = Caffeine.newBuilder().expireAfterWrite(guard).build();
+    }
+
+    /**
+     * Records a committed insert or update of {@code key} at {@code version} and evicts the entry.
+     */
+    public void written(Object key, long version) {
+        writes.asMap().merge(key, version, Math::max);
+        getNativeCache().asMap().remove(key);
+    }
+
+    public void deleted(Object key) {
+        written(key, DELETED);
+    }
+
+    /**
+     * Records a write whose keys are unknown, such as an import, and drops every entry.
+     */
+    public void cleared() {
+        clearedUntil = System.nanoTime() + guardNanos;
+        clear();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object stored = toStoreValue(value);
+        getNativeCache().asMap().compute(key, (k, current) -> isStale(k, stored) ? current : stored);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object stored = toStoreValue(value);
+        Object current = getNativeCache().asMap().computeIfAbsent(key, k -> isStale(k, stored) ? null : stored);
+        return current == null || current == stored ? null : toValueWrapper(current);
+    }
+
+    private boolean isStale(Object key, Object stored) {
+        if (System.nanoTime() - clearedUntil < 0) {
+            return true;
+        }
+        Long written = writes.getIfPresent(key);
+        if (written == null) {
+            return false;
+        }
+        if (stored instanceof EmployeeView view) {
+            return (view.version() == null ? 0L : view.version()) < written;
+        }
+        return written != DELETED;
+    }
+}
@@ -1,23 +1,72 @@
 package com.olumide.springboottesting.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.olumide.springboottesting.config.Bulkhead;
+import com.olumide.springboottesting.dto.EmployeeBatchResult;
+import com.olumide.springboottesting.dto.EmployeeChanges;
+import com.olumide.springboottesting.dto.EmployeeDeleteRequest;
+import com.olumide.springboottesting.dto.EmployeeDeleteResult;
+import com.olumide.springboottesting.dto.EmployeeImportResult;
+import com.olumide.springboottesting.dto.EmployeeLookupResult;
+import com.olumide.springboottesting.dto.EmployeeMultiGetRequest;
+import com.olumide.springboottesting.dto.EmployeePage;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.exception.PreconditionFailedException;
+import com.olumide.springboottesting.exception.VersionConflictException;
 import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.service.EmployeeChangeFeed;
 import com.olumide.springboottesting.service.EmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    /**
+     * Employees as a sequence of CBOR documents, each preceded by its length as a 4-byte big-endian int,
+     * so a reader can frame and decode records one at a time while the response is still streaming.
+     */
+    static final String APPLICATION_CBOR_DELIMITED_VALUE = "application/x-cbor-delimited";
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final ObjectWriter CBOR_WRITER = Jackson2ObjectMapperBuilder.cbor().build().writerFor(Employee.class);
+
     private EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    private ObjectMapper objectMapper;
+
+    private EmployeeChangeFeed changeFeed;
+
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper, EmployeeChangeFeed changeFeed) {
         this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.changeFeed = changeFeed;
     }
 
     @PostMapping
@@ -26,32 +75,185 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    @PostMapping("/batch")
+    public List<EmployeeBatchResult> createEmployees(@RequestBody List<Employee> employees){
+        return employeeService.saveEmployees(employees);
+    }
+
     @GetMapping
-    public List<Employee> getAllEmployees(){
-        return employeeService.getAllEmployees();
+    @Bulkhead("list")
+    public ResponseEntity<List<EmployeeView>> getAllEmployees(WebRequest request){
+        // the counter is read before the rows: a write landing in between costs the client a refetch, never a stale 304
+        String eTag = EmployeeETags.ofList(employeeService.getChangeCount());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(employeeService.getAllEmployees());
+    }
+
+    @GetMapping(params = "ids")
+    @Bulkhead("lookup")
+    public List<EmployeeLookupResult> getEmployeesByIds(@RequestParam("ids") List<Long> ids){
+        return employeeService.getByIds(ids);
+    }
+
+    @PostMapping("/_mget")
+    @Bulkhead("lookup")
+    public List<EmployeeLookupResult> getEmployeesByIds(@RequestBody EmployeeMultiGetRequest request){
+        return employeeService.getByIds(request.ids() == null ? List.of() : request.ids());
+    }
+
+    @GetMapping("/page")
+    @Bulkhead("list")
+    public EmployeePage getEmployeePage(@RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "size", defaultValue = "100") int size){
+        return employeeService.getEmployeePage(cursor, size);
+    }
+
+    @GetMapping("/search")
+    @Bulkhead("list")
+    public EmployeePage searchEmployees(EmployeeSearchCriteria criteria,
+                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "size", defaultValue = "100") int size){
+        return employeeService.searchEmployees(criteria, cursor, size);
+    }
+
+    @GetMapping("/changes")
+    @Bulkhead("list")
+    public EmployeeChanges getChanges(@RequestParam(value = "since", required = false) String since,
+                                      @RequestParam(value = "size", defaultValue = "500") int size){
+        return employeeService.getChangesSince(since, size);
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    @Bulkhead("list")
+    public ResponseEntity<StreamingResponseBody> streamEmployeesAsNdjson(){
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writerFor(Employee.class)
+                    .withRootValueSeparator("\n").writeValues(out)) {
+                employeeService.streamAllEmployees(employee -> write(writer, employee));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
+    }
+
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Bulkhead("list")
+    public ResponseEntity<StreamingResponseBody> streamEmployeesAsJsonArray(){
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writerFor(Employee.class).writeValuesAsArray(out)) {
+                employeeService.streamAllEmployees(employee -> write(writer, employee));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping(produces = APPLICATION_CBOR_DELIMITED_VALUE)
+    @Bulkhead("list")
+    public ResponseEntity<StreamingResponseBody> streamEmployeesAsDelimitedCbor(){
+        StreamingResponseBody body = out -> {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            employeeService.streamAllEmployees(employee -> writeDelimited(data, employee));
+            data.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_CBOR_DELIMITED_VALUE)).body(body);
+    }
+
+    @GetMapping(path = "/export", produces = TEXT_CSV_VALUE)
+    @Bulkhead("list")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(){
+        StreamingResponseBody body = employeeService::exportCsv;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.csv\"")
+                .body(body);
+    }
+
+    @PostMapping(path = "/import", consumes = TEXT_CSV_VALUE)
+    public EmployeeImportResult importEmployees(InputStream csv){
+        // the request body is handed to COPY as it arrives; the file is never held in memory
+        return employeeService.importCsv(csv);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){
+        // pushes each committed change instead of having consumers poll the full list
+        return changeFeed.subscribe(lastEventId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId){
-        return employeeService.getById(employeeId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    // no @Bulkhead: cache hits must not be turned away, so the loader takes the lookup permit on a miss only
+    public ResponseEntity<EmployeeView> getEmployeeById(@PathVariable("id") long employeeId){
+        // with an ETag on the entity, a matching If-None-Match is answered with 304 before the body is serialized
+        return employeeService.getById(employeeId)
+                .map(employee -> withETag(ResponseEntity.ok(), employee.version()).body(employee))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee){
-        return employeeService.getById(employeeId)
-                .map(savedEmployee -> {
-                    savedEmployee.setFirstName(employee.getFirstName());
-                    savedEmployee.setLastName(employee.getLastName());
-                    savedEmployee.setEmail(employee.getEmail());
-                    Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-                    return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
-                }).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        employee.setId(employeeId);
+        Long expectedVersion = EmployeeETags.parseIfMatch(ifMatch);
+        if (expectedVersion != null) {
+            employee.setVersion(expectedVersion);
+        }
+        Employee updatedEmployee;
+        try {
+            updatedEmployee = employeeService.updateEmployee(employee);
+        } catch (VersionConflictException e) {
+            throw expectedVersion == null ? e : new PreconditionFailedException(e.getMessage(), e);
+        }
+        return withETag(ResponseEntity.ok(), updatedEmployee.getVersion()).body(updatedEmployee);
+    }
+
+    @PatchMapping("/{id}")
+    public Employee patchEmployee(@PathVariable("id") long employeeId, @RequestBody EmployeePatch patch){
+        return employeeService.patchEmployee(employeeId, patch);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId){
-        employeeService.deleteEmployee(employeeId);
+    public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Long expectedVersion = EmployeeETags.parseIfMatch(ifMatch);
+        if (expectedVersion == null) {
+            employeeService.deleteEmployee(employeeId);
+        } else {
+            try {
+                employeeService.deleteEmployee(employeeId, expectedVersion);
+            } catch (VersionConflictException e) {
+                throw new PreconditionFailedException(e.getMessage(), e);
+            }
+        }
 
         return new ResponseEntity<>("Employee deleted successfully",HttpStatus.OK);
     }
+
+    @DeleteMapping
+    public EmployeeDeleteResult deleteEmployees(@RequestBody EmployeeDeleteRequest request){
+        return employeeService.deleteEmployees(request);
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, Long version) {
+        String eTag = EmployeeETags.ofVersion(version);
+        return eTag == null ? builder : builder.eTag(eTag);
+    }
+
+    private static void write(SequenceWriter writer, Employee employee) {
+        try {
+            writer.write(employee);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeDelimited(DataOutputStream out, Employee employee) {
+        try {
+            byte[] record = CBOR_WRITER.writeValueAsBytes(employee);
+            out.writeInt(record.length);
+            out.write(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
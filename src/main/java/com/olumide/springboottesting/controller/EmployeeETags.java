@@ -0,0 +1,42 @@
+package com.olumide.springboottesting.controller;
+
+import com.olumide.springboottesting.exception.PreconditionFailedException;
+
+/**
+ * Entity tags for the employee resources. A single employee is tagged with its {@code @Version},
+ * the collection with the table-level change counter, so neither needs the body to be rendered and hashed.
+ * The collection tag is weak: it names the data, not one byte encoding of it, and Tomcat will not
+ * gzip a response that carries a strong tag.
+ */
+final class EmployeeETags {
+
+    private EmployeeETags() {
+    }
+
+    static String ofVersion(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    static String ofList(long changeCount) {
+        return "W/\"list-" + changeCount + "\"";
+    }
+
+    /**
+     * Returns the version an {@code If-Match} header pins the write to, or null when the header is absent
+     * or {@code *}. Weak, list or malformed tags can never match a stored version and fail the precondition.
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // fall through to the precondition failure below
+            }
+        }
+        throw new PreconditionFailedException(String.format("If-Match %s does not match the current version", tag));
+    }
+}
@@ -0,0 +1,134 @@
+package com.olumide.springboottesting.controller;
+
+import com.olumide.springboottesting.dto.EmployeeDeleteRequest;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Functional handlers behind {@link EmployeeRouter}. Mirrors the status codes and bodies of
+ * {@link EmployeeController}; errors surface through the exceptions' {@code @ResponseStatus}, and a path or
+ * query value that does not parse is a 400 as it is there.
+ */
+@Profile("reactive")
+@Component
+public class EmployeeHandler {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final ReactiveEmployeeService employeeService;
+
+    public EmployeeHandler(ReactiveEmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    public Mono<ServerResponse> createEmployee(ServerRequest request) {
+        return request.bodyToMono(Employee.class)
+                .flatMap(employeeService::saveEmployee)
+                .flatMap(saved -> ServerResponse.status(HttpStatus.CREATED).bodyValue(saved));
+    }
+
+    public Mono<ServerResponse> createEmployees(ServerRequest request) {
+        return request.bodyToFlux(Employee.class)
+                .collectList()
+                .flatMap(employeeService::saveEmployees)
+                .flatMap(results -> ServerResponse.ok().bodyValue(results));
+    }
+
+    public Mono<ServerResponse> getAllEmployees(ServerRequest request) {
+        // the Flux is encoded as it is read, so the list is never held in memory and demand flows back to R2DBC;
+        // NDJSON only when asked for explicitly so that */* keeps getting the JSON array
+        MediaType contentType = request.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok()
+                .contentType(contentType)
+                .body(employeeService.getAllEmployees(), Employee.class);
+    }
+
+    public Mono<ServerResponse> getEmployeePage(ServerRequest request) {
+        return employeeService.getEmployeePage(request.queryParam("cursor").orElse(null), size(request))
+                .flatMap(page -> ServerResponse.ok().bodyValue(page));
+    }
+
+    public Mono<ServerResponse> searchEmployees(ServerRequest request) {
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria(
+                request.queryParam("lastName").orElse(null),
+                request.queryParam("firstName").orElse(null),
+                request.queryParam("emailDomain").orElse(null),
+                longParam(request, "minId"),
+                longParam(request, "maxId"));
+        return employeeService.searchEmployees(criteria, request.queryParam("cursor").orElse(null), size(request))
+                .flatMap(page -> ServerResponse.ok().bodyValue(page));
+    }
+
+    public Mono<ServerResponse> getEmployeeById(ServerRequest request) {
+        return employeeService.getById(id(request))
+                .flatMap(employee -> ServerResponse.ok().bodyValue(employee))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> updateEmployee(ServerRequest request) {
+        long id = id(request);
+        return request.bodyToMono(Employee.class)
+                .flatMap(employee -> {
+                    employee.setId(id);
+                    return employeeService.updateEmployee(employee);
+                })
+                .flatMap(updated -> ServerResponse.ok().bodyValue(updated));
+    }
+
+    public Mono<ServerResponse> patchEmployee(ServerRequest request) {
+        long id = id(request);
+        return request.bodyToMono(EmployeePatch.class)
+                .flatMap(patch -> employeeService.patchEmployee(id, patch))
+                .flatMap(patched -> ServerResponse.ok().bodyValue(patched));
+    }
+
+    public Mono<ServerResponse> deleteEmployee(ServerRequest request) {
+        return employeeService.deleteEmployee(id(request))
+                .then(ServerResponse.ok().bodyValue("Employee deleted successfully"));
+    }
+
+    public Mono<ServerResponse> deleteEmployees(ServerRequest request) {
+        return request.bodyToMono(EmployeeDeleteRequest.class)
+                .flatMap(employeeService::deleteEmployees)
+                .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
+    private static long id(ServerRequest request) {
+        String id = request.pathVariable("id");
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException(String.format("Invalid employee id %s", id), null, e);
+        }
+    }
+
+    private static int size(ServerRequest request) {
+        String size = request.queryParam("size").orElse(null);
+        try {
+            return size == null ? DEFAULT_PAGE_SIZE : Integer.parseInt(size);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException(String.format("Invalid page size %s", size), null, e);
+        }
+    }
+
+    private static Long longParam(ServerRequest request, String name) {
+        String value = request.queryParam(name).orElse(null);
+        try {
+            return value == null ? null : Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException(String.format("Invalid %s %s", name, value), null, e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.olumide.springboottesting.controller;
+
+import com.olumide.springboottesting.dto.EmployeeIngestStatus;
+import com.olumide.springboottesting.exception.ResourceNotFoundException;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.service.EmployeeIngestQueue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+
+@Profile("!reactive")
+@RestController
+@RequestMapping("/api/employees/ingest")
+@ConditionalOnProperty(name = "employee.ingest.enabled", havingValue = "true")
+public class EmployeeIngestController {
+
+    private final EmployeeIngestQueue ingestQueue;
+
+    public EmployeeIngestController(EmployeeIngestQueue ingestQueue) {
+        this.ingestQueue = ingestQueue;
+    }
+
+    @PostMapping
+    public ResponseEntity<EmployeeIngestStatus> ingestEmployee(@RequestBody Employee employee, UriComponentsBuilder uriBuilder){
+        EmployeeIngestStatus status = ingestQueue.submit(employee);
+        return ResponseEntity.accepted()
+                .location(uriBuilder.path("/api/employees/ingest/{ticket}").buildAndExpand(status.ticket()).toUri())
+                .body(status);
+    }
+
+    @GetMapping("/{ticket}")
+    public EmployeeIngestStatus getIngestStatus(@PathVariable("ticket") String ticket){
+        return ingestQueue.getStatus(ticket)
+                .orElseThrow(() -> new ResourceNotFoundException("No ingestion with ticket " + ticket));
+    }
+}
@@ -0,0 +1,42 @@
+package com.olumide.springboottesting.controller;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Routes {@code /api/employees} to {@link EmployeeHandler} when the application runs with the
+ * {@code reactive} profile (WebFlux on Netty, R2DBC). The servlet {@link EmployeeController} is
+ * the default and is switched off under that profile.
+ * <p>
+ * The reactive stack covers the CRUD and query endpoints: create (single and {@code /batch}), the list (as a JSON
+ * array or, with {@code Accept: application/x-ndjson}, NDJSON, both streamed), {@code /page}, {@code /search},
+ * get, put, patch and delete by id, and the bulk delete. The rest stay servlet-only and answer 404 here:
+ * multi-get ({@code ?ids=}, {@code /_mget}), {@code /changes}, the {@code /stream} change feed, delimited CBOR,
+ * {@code /export}, {@code /import} and {@code /ingest}. It also sends no list ETag and applies no rate limit or
+ * bulkhead, as those are servlet filters and interceptors.
+ */
+@Profile("reactive")
+@Configuration
+public class EmployeeRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> employeeRoutes(EmployeeHandler handler) {
+        return RouterFunctions.route()
+                .path("/api/employees", builder -> builder
+                        .POST("", handler::createEmployee)
+                        .POST("/batch", handler::createEmployees)
+                        .GET("", handler::getAllEmployees)
+                        .GET("/page", handler::getEmployeePage)
+                        .GET("/search", handler::searchEmployees)
+                        .GET("/{id}", handler::getEmployeeById)
+                        .PUT("/{id}", handler::updateEmployee)
+                        .PATCH("/{id}", handler::patchEmployee)
+                        .DELETE("", handler::deleteEmployees)
+                        .DELETE("/{id}", handler::deleteEmployee))
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.olumide.springboottesting.dto;
+
+import com.olumide.springboottesting.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Position in the change log of the employees table: the {@code (updated_at, id)} of the last change a client
+ * has seen. Encoded as an opaque token like {@link PageCursor}; timestamps keep PostgreSQL's microsecond precision.
+ */
+public record ChangeToken(Instant changedAt, long id) {
+
+    private static final String PREFIX = "ts:";
+
+    public static final ChangeToken BEGINNING = new ChangeToken(Instant.EPOCH, 0L);
+
+    public String encode() {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, changedAt);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + micros + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns null for a missing token, meaning the client has no state and needs every row.
+     */
+    public static ChangeToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':', PREFIX.length());
+            if (!decoded.startsWith(PREFIX) || separator < 0) {
+                throw new InvalidCursorException(String.format("Invalid change token %s", token));
+            }
+            long micros = Long.parseLong(decoded.substring(PREFIX.length(), separator));
+            return new ChangeToken(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(String.format("Invalid change token %s", token), e);
+        }
+    }
+}
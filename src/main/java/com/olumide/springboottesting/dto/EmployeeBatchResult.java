@@ -0,0 +1,20 @@
+package com.olumide.springboottesting.dto;
+
+/**
+ * Outcome for a single row of a batch create, reported at the row's position in the request.
+ */
+public record EmployeeBatchResult(int index, Status status, Long id, String email) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE_EMAIL
+    }
+
+    public static EmployeeBatchResult created(int index, Long id, String email) {
+        return new EmployeeBatchResult(index, Status.CREATED, id, email);
+    }
+
+    public static EmployeeBatchResult duplicate(int index, String email) {
+        return new EmployeeBatchResult(index, Status.DUPLICATE_EMAIL, null, email);
+    }
+}
@@ -0,0 +1,18 @@
+package com.olumide.springboottesting.dto;
+
+import java.time.Instant;
+
+/**
+ * One entry of the change log: the current row for an insert or update, or only the id for a delete
+ * ({@code employee} is null).
+ */
+public record EmployeeChange(Instant changedAt, long id, EmployeeView employee) {
+
+    public boolean isDeleted() {
+        return employee == null;
+    }
+
+    public ChangeToken position() {
+        return new ChangeToken(changedAt, id);
+    }
+}
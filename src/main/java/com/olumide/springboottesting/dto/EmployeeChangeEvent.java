@@ -0,0 +1,31 @@
+package com.olumide.springboottesting.dto;
+
+import com.olumide.springboottesting.model.Employee;
+
+/**
+ * A committed change to the employees table, as pushed to change-feed subscribers. {@code employee} is
+ * the row after the change and is absent for deletes; {@link Type#RESET} carries neither id nor row and
+ * tells the subscriber to refetch the list because individual changes were not (or can no longer be) sent.
+ */
+public record EmployeeChangeEvent(Type type, Long id, EmployeeView employee) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, RESET
+    }
+
+    public static EmployeeChangeEvent created(Employee employee) {
+        return new EmployeeChangeEvent(Type.CREATED, employee.getId(), EmployeeView.of(employee));
+    }
+
+    public static EmployeeChangeEvent updated(Employee employee) {
+        return new EmployeeChangeEvent(Type.UPDATED, employee.getId(), EmployeeView.of(employee));
+    }
+
+    public static EmployeeChangeEvent deleted(Long id) {
+        return new EmployeeChangeEvent(Type.DELETED, id, null);
+    }
+
+    public static EmployeeChangeEvent reset() {
+        return new EmployeeChangeEvent(Type.RESET, null, null);
+    }
+}
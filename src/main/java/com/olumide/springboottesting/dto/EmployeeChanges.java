@@ -0,0 +1,10 @@
+package com.olumide.springboottesting.dto;
+
+import java.util.List;
+
+/**
+ * One page of changes since a token. Clients upsert {@code updated}, remove {@code deleted} and pass
+ * {@code nextToken} back as {@code since}; {@code hasMore} says whether to ask again straight away.
+ */
+public record EmployeeChanges(List<EmployeeView> updated, List<Long> deleted, String nextToken, boolean hasMore) {
+}
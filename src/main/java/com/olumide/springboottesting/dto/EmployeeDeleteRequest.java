@@ -0,0 +1,10 @@
+package com.olumide.springboottesting.dto;
+
+import java.util.List;
+
+/**
+ * Selects the employees removed by a bulk delete: either an explicit list of ids or every employee
+ * whose email belongs to {@code emailDomain}.
+ */
+public record EmployeeDeleteRequest(List<Long> ids, String emailDomain) {
+}
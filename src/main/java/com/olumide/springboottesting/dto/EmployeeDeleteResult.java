@@ -0,0 +1,4 @@
+package com.olumide.springboottesting.dto;
+
+public record EmployeeDeleteResult(long deleted) {
+}
@@ -0,0 +1,7 @@
+package com.olumide.springboottesting.dto;
+
+/**
+ * A CSV row that was not imported. {@code row} is the 1-based data row, not counting the header line.
+ */
+public record EmployeeImportError(long row, String email, String reason) {
+}
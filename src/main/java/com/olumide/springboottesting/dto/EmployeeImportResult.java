@@ -0,0 +1,10 @@
+package com.olumide.springboottesting.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import. {@code errors} lists rejected rows in file order, capped at the configured
+ * maximum; {@code rejected} is always the full count.
+ */
+public record EmployeeImportResult(long rows, long imported, long rejected, List<EmployeeImportError> errors) {
+}
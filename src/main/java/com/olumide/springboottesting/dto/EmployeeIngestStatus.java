@@ -0,0 +1,28 @@
+package com.olumide.springboottesting.dto;
+
+/**
+ * Where an employee accepted by {@code POST /api/employees/ingest} stands: still queued, or the outcome of the
+ * batch that wrote it.
+ */
+public record EmployeeIngestStatus(String ticket, Status status, Long id, String email) {
+
+    public enum Status {
+        QUEUED,
+        CREATED,
+        DUPLICATE_EMAIL,
+        FAILED
+    }
+
+    public static EmployeeIngestStatus queued(String ticket, String email) {
+        return new EmployeeIngestStatus(ticket, Status.QUEUED, null, email);
+    }
+
+    public static EmployeeIngestStatus of(String ticket, EmployeeBatchResult result) {
+        Status status = result.status() == EmployeeBatchResult.Status.CREATED ? Status.CREATED : Status.DUPLICATE_EMAIL;
+        return new EmployeeIngestStatus(ticket, status, result.id(), result.email());
+    }
+
+    public static EmployeeIngestStatus failed(String ticket, String email) {
+        return new EmployeeIngestStatus(ticket, Status.FAILED, null, email);
+    }
+}
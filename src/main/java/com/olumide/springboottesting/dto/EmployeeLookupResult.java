@@ -0,0 +1,20 @@
+package com.olumide.springboottesting.dto;
+
+/**
+ * Outcome for a single id of a multi-get, reported at the id's position in the request.
+ */
+public record EmployeeLookupResult(Long id, Status status, EmployeeView employee) {
+
+    public enum Status {
+        FOUND,
+        NOT_FOUND
+    }
+
+    public static EmployeeLookupResult found(EmployeeView employee) {
+        return new EmployeeLookupResult(employee.id(), Status.FOUND, employee);
+    }
+
+    public static EmployeeLookupResult notFound(Long id) {
+        return new EmployeeLookupResult(id, Status.NOT_FOUND, null);
+    }
+}
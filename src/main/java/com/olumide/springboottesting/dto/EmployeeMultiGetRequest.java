@@ -0,0 +1,9 @@
+package com.olumide.springboottesting.dto;
+
+import java.util.List;
+
+/**
+ * Body of {@code POST /api/employees/_mget}, for id lists too long to fit comfortably in a query string.
+ */
+public record EmployeeMultiGetRequest(List<Long> ids) {
+}
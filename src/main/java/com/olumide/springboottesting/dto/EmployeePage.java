@@ -0,0 +1,9 @@
+package com.olumide.springboottesting.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of employees. {@code nextCursor} is null on the last page.
+ */
+public record EmployeePage(List<EmployeeView> items, String nextCursor) {
+}
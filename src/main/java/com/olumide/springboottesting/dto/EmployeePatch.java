@@ -0,0 +1,18 @@
+package com.olumide.springboottesting.dto;
+
+import com.olumide.springboottesting.model.Employee;
+
+/**
+ * Partial update of an employee. Null fields are left untouched; {@code version}, when present,
+ * must match the stored version for the update to apply.
+ */
+public record EmployeePatch(String firstName, String lastName, String email, Long version) {
+
+    public static EmployeePatch of(Employee employee) {
+        return new EmployeePatch(employee.getFirstName(), employee.getLastName(), employee.getEmail(), employee.getVersion());
+    }
+
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && email == null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.olumide.springboottesting.dto;
+
+/**
+ * Filters for the employee search. Name filters are case-insensitive prefixes, {@code emailDomain} matches
+ * the part after the {@code @} exactly, and the id bounds are inclusive. Null filters are ignored.
+ */
+public record EmployeeSearchCriteria(String lastName, String firstName, String emailDomain, Long minId, Long maxId) {
+}
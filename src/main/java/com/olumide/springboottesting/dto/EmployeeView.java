@@ -0,0 +1,15 @@
+package com.olumide.springboottesting.dto;
+
+import com.olumide.springboottesting.model.Employee;
+
+/**
+ * Read-only view of an employee. Read paths select straight into this record so Hibernate never
+ * registers an entity or keeps a dirty-checking snapshot for rows that are only serialized.
+ */
+public record EmployeeView(Long id, String firstName, String lastName, String email, Long version) {
+
+    public static EmployeeView of(Employee employee) {
+        return new EmployeeView(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getVersion());
+    }
+}
@@ -0,0 +1,10 @@
+package com.olumide.springboottesting.dto;
+
+/**
+ * The response first sent for an {@code Idempotency-Key}, kept as the bytes that went over the wire so a retry
+ * is answered without running the handler or serializing the body again. {@code requestHash} is the SHA-256 of
+ * the request body it answered, so a retry carrying another body can be told apart; null for keys recorded
+ * before it was kept.
+ */
+public record IdempotentResponse(int status, String contentType, byte[] body, byte[] requestHash) {
+}
@@ -0,0 +1,15 @@
+package com.olumide.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException{
+    public BulkheadFullException(String message){
+        super(message);
+    }
+
+    public BulkheadFullException(String message, Throwable cause){
+        super(message,cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.olumide.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class ChangeTokenExpiredException extends RuntimeException{
+    public ChangeTokenExpiredException(String message){
+        super(message);
+    }
+
+    public ChangeTokenExpiredException(String message, Throwable cause){
+        super(message,cause);
+    }
+}
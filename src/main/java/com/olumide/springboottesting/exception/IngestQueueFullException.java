@@ -0,0 +1,15 @@
+package com.olumide.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class IngestQueueFullException extends RuntimeException{
+    public IngestQueueFullException(String message){
+        super(message);
+    }
+
+    public IngestQueueFullException(String message, Throwable cause){
+        super(message,cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.olumide.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCsvException extends RuntimeException{
+    public InvalidCsvException(String message){
+        super(message);
+    }
+
+    public InvalidCsvException(String message, Throwable cause){
+        super(message,cause);
+    }
+}
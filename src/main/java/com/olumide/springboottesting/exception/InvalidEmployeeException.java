@@ -0,0 +1,15 @@
+package com.olumide.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidEmployeeException extends RuntimeException{
+    public InvalidEmployeeException(String message){
+        super(message);
+    }
+
+    public InvalidEmployeeException(String message, Throwable cause){
+        super(message,cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.olumide.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class TooManyIdsException extends RuntimeException{
+    public TooManyIdsException(String message){
+        super(message);
+    }
+
+    public TooManyIdsException(String message, Throwable cause){
+        super(message,cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.olumide.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class VersionConflictException extends RuntimeException{
+    public VersionConflictException(String message){
+        super(message);
+    }
+
+    public VersionConflictException(String message, Throwable cause){
+        super(message,cause);
+    }
+}
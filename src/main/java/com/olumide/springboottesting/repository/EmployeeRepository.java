@@ -1,12 +1,63 @@
 package com.olumide.springboottesting.repository;
 
+import com.olumide.springboottesting.dto.EmployeeView;
 import com.olumide.springboottesting.model.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface EmployeeRepository extends JpaRepository<Employee,Long> {
+public interface EmployeeRepository extends JpaRepository<Employee,Long>, EmployeeRepositoryCustom {
+
+    String SELECT_EMPLOYEE_VIEW = "select new com.olumide.springboottesting.dto.EmployeeView("
+            + "e.id, e.firstName, e.lastName, e.email, e.version) from Employee e";
 
     Optional<Employee> findByEmail(String email);
+
+    @Query(SELECT_EMPLOYEE_VIEW + " order by e.id")
+    List<EmployeeView> findAllViews();
+
+    // read-only so lookups issued off a request transaction can still be routed to a replica
+    @Transactional(readOnly = true)
+    @Query(SELECT_EMPLOYEE_VIEW + " where e.id = :id")
+    Optional<EmployeeView> findViewById(@Param("id") Long id);
+
+    @Query(SELECT_EMPLOYEE_VIEW + " where e.id > :id order by e.id")
+    List<EmployeeView> findViewsByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Current value of the table-level change counter maintained by the trigger in
+     * {@code db/migration/postgresql/V8__employees_change_counter_slots.sql}, summed over its slots; moves whenever
+     * a statement writes to employees.
+     */
+    @Query(value = "select coalesce(sum(value), 0) from employees_change_counts", nativeQuery = true)
+    long findChangeCount();
+
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id = :id")
+    int deleteRowById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id = :id and e.version = :version")
+    int deleteRowByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id in :ids")
+    int deleteRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from employee_tombstones where deleted_at < now() - make_interval(secs => :seconds)",
+            nativeQuery = true)
+    int deleteTombstonesOlderThan(@Param("seconds") long seconds);
 }
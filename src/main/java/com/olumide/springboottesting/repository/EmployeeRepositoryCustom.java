@@ -0,0 +1,97 @@
+package com.olumide.springboottesting.repository;
+
+import com.olumide.springboottesting.dto.ChangeToken;
+import com.olumide.springboottesting.dto.EmployeeChange;
+import com.olumide.springboottesting.dto.EmployeeImportResult;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.model.Employee;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface EmployeeRepositoryCustom {
+
+    /**
+     * Reads every employee ordered by id through a server-side cursor and hands each row to the consumer
+     * as soon as it is read, so callers never hold the whole table in memory.
+     * Must be called inside a transaction for the fetch size to be honoured by the PostgreSQL driver.
+     */
+    void streamAll(Consumer<Employee> consumer);
+
+    /**
+     * Inserts the employee in a single statement unless another row already holds its email.
+     * Returns the inserted row, or empty when the email was taken.
+     */
+    Optional<Employee> insertIfEmailAbsent(Employee employee);
+
+    /**
+     * Inserts the employees in a single statement, skipping each one whose email another row already holds,
+     * including rows committed by a concurrent writer after the caller last looked. Returns the inserted rows, in
+     * no particular order.
+     */
+    List<Employee> insertAllIfEmailAbsent(List<Employee> employees);
+
+    /**
+     * Writes the non-null fields of the patch and bumps the version in a single
+     * {@code UPDATE ... RETURNING} statement. Returns empty when no row has the id, or when the patch
+     * carries a version that no longer matches.
+     */
+    Optional<Employee> updateFields(long id, EmployeePatch patch);
+
+    /**
+     * Returns up to {@code limit} employees matching the criteria with an id greater than {@code afterId},
+     * ordered by id.
+     */
+    List<EmployeeView> search(EmployeeSearchCriteria criteria, long afterId, int limit);
+
+    /**
+     * Deletes every employee whose email is at {@code domain}, in chunks of {@code chunkSize} rows each committed
+     * on its own when no transaction is active, so a large domain never holds its locks all at once. Returns the
+     * number of rows deleted.
+     */
+    long deleteByEmailDomain(String domain, int chunkSize);
+
+    /**
+     * Returns the employees with the given ids in one {@code id = any(?)} query, in no particular order. Ids with
+     * no row are simply absent from the result.
+     */
+    @Transactional(readOnly = true)
+    List<EmployeeView> findViewsByIds(Collection<Long> ids);
+
+    /**
+     * Database time minus the settle time. {@code updated_at} is stamped when a transaction starts writing, not
+     * when it commits, so changes are only handed out once they are older than this horizon; a writer that takes
+     * longer than the settle time to commit can still be missed.
+     */
+    Instant findSettledHorizon(Duration settleTime);
+
+    /**
+     * Returns up to {@code limit} changes positioned after {@code after} and before {@code horizon}, ordered by
+     * {@code (changed_at, id)}. Tombstones are only read when {@code includeDeletes} is set.
+     */
+    List<EmployeeChange> findChangesAfter(ChangeToken after, Instant horizon, boolean includeDeletes, int limit);
+
+    /**
+     * Writes every employee as CSV with a header line through {@code COPY ... TO STDOUT}, streaming rows from the
+     * server straight into {@code out}. Returns the number of rows written.
+     */
+    long copyOut(OutputStream out);
+
+    /**
+     * Loads a {@code first_name,last_name,email} CSV (with header line) into a temporary staging table through
+     * {@code COPY ... FROM STDIN}, then inserts the valid rows in one statement. Rows missing a field, repeating an
+     * email seen earlier in the file, or whose email is already taken are rejected. Must run in a transaction:
+     * the staging table is dropped on commit.
+     */
+    EmployeeImportResult importCsv(InputStream csv, int maxErrors);
+}
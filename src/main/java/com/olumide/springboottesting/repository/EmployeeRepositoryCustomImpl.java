@@ -0,0 +1,323 @@
+package com.olumide.springboottesting.repository;
+
+import com.olumide.springboottesting.dto.ChangeToken;
+import com.olumide.springboottesting.dto.EmployeeChange;
+import com.olumide.springboottesting.dto.EmployeeImportError;
+import com.olumide.springboottesting.dto.EmployeeImportResult;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.exception.InvalidCsvException;
+import com.olumide.springboottesting.model.Employee;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    static final RowMapper<Employee> EMPLOYEE_ROW_MAPPER = (rs, rowNum) -> Employee.builder()
+            .id(rs.getLong("id"))
+            .firstName(rs.getString("first_name"))
+            .lastName(rs.getString("last_name"))
+            .email(rs.getString("email"))
+            .version(rs.getLong("version"))
+            .updatedAt(toInstant(rs.getObject("updated_at", OffsetDateTime.class)))
+            .build();
+
+    static final RowMapper<EmployeeView> EMPLOYEE_VIEW_ROW_MAPPER = (rs, rowNum) -> new EmployeeView(
+            rs.getLong("id"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("email"),
+            rs.getLong("version"));
+
+    // deletes come from tombstones, which only carry an id, so their employee columns are null
+    static final RowMapper<EmployeeChange> EMPLOYEE_CHANGE_ROW_MAPPER = (rs, rowNum) -> new EmployeeChange(
+            rs.getObject("changed_at", OffsetDateTime.class).toInstant(),
+            rs.getLong("id"),
+            rs.getString("email") == null ? null : EMPLOYEE_VIEW_ROW_MAPPER.mapRow(rs, rowNum));
+
+    static final String EMPLOYEE_COLUMNS = "id, first_name, last_name, email, version, updated_at";
+
+    static final String CHANGED_EMPLOYEES = """
+            select id, first_name, last_name, email, version, updated_at as changed_at from employees
+            where (updated_at, id) > (?, ?) and updated_at < ?
+            order by updated_at, id limit ?""";
+
+    static final String DELETED_EMPLOYEES = """
+            select id, null, null, null, null, deleted_at from employee_tombstones
+            where (deleted_at, id) > (?, ?) and deleted_at < ?
+            order by deleted_at, id limit ?""";
+
+    static final String EXPORT_SQL = "copy (select " + EMPLOYEE_COLUMNS + " from employees order by id)"
+            + " to stdout with (format csv, header true)";
+
+    // rows are numbered in file order by the identity column as COPY appends them
+    static final String CREATE_IMPORT_TABLE = """
+            create temporary table employee_import (
+                line       bigint generated always as identity,
+                first_name text,
+                last_name  text,
+                email      text,
+                error      text
+            ) on commit drop""";
+
+    static final String IMPORT_SQL = "copy employee_import (first_name, last_name, email)"
+            + " from stdin with (format csv, header true)";
+
+    static final String REJECT_MISSING_FIELDS = """
+            update employee_import set error = 'first_name, last_name and email are required'
+            where coalesce(trim(first_name), '') = '' or coalesce(trim(last_name), '') = '' or coalesce(trim(email), '') = ''""";
+
+    static final String REJECT_DUPLICATES_IN_FILE = """
+            update employee_import i set error = 'duplicate email in file'
+            from (select line, row_number() over (partition by lower(trim(email)) order by line) as occurrence
+                  from employee_import where error is null) d
+            where i.line = d.line and d.occurrence > 1""";
+
+    // same rule as insertIfEmailAbsent: normalized email, first writer wins, conflicts are skipped and reported
+    static final String MERGE_IMPORT = """
+            with inserted as (
+                insert into employees (id, first_name, last_name, email, version)
+                select nextval('employees_seq'), first_name, last_name, lower(trim(email)), 0
+                from employee_import where error is null order by line
+                on conflict (email) do nothing
+                returning email)
+            update employee_import i set error = 'email already exists'
+            where i.error is null and not exists (select 1 from inserted n where n.email = lower(trim(i.email)))""";
+
+    // rows are numbered in request order so ids are handed out in that order
+    static final String INSERT_ALL_IF_EMAIL_ABSENT = """
+            insert into employees (id, first_name, last_name, email, version)
+            select nextval('employees_seq'), first_name, last_name, email, 0
+            from unnest(?::text[], ?::text[], ?::text[]) with ordinality as t(first_name, last_name, email, line)
+            order by line
+            on conflict (email) do nothing
+            returning\s""" + EMPLOYEE_COLUMNS;
+
+    // one chunk of deleteByEmailDomain: walks idx_employees_email_domain from the last id seen, so each chunk starts
+    // where the previous one stopped instead of rescanning the rows it already removed
+    static final String DELETE_DOMAIN_CHUNK = """
+            with chunk as (
+                select id from employees where split_part(email, '@', 2) = ? and id > ? order by id limit ?),
+            deleted as (
+                delete from employees where id in (select id from chunk) returning id)
+            select (select max(id) from chunk) as last_id, (select count(*) from deleted) as deleted""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int fetchSize;
+
+    public EmployeeRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                        @Value("${employee.stream.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void streamAll(Consumer<Employee> consumer) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(
+                    "select " + EMPLOYEE_COLUMNS + " from employees order by id");
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            consumer.accept(EMPLOYEE_ROW_MAPPER.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    @Override
+    public Optional<Employee> insertIfEmailAbsent(Employee employee) {
+        return jdbcTemplate.query("""
+                        insert into employees (id, first_name, last_name, email, version)
+                        values (nextval('employees_seq'), ?, ?, ?, 0)
+                        on conflict (email) do nothing
+                        returning\s""" + EMPLOYEE_COLUMNS,
+                EMPLOYEE_ROW_MAPPER,
+                employee.getFirstName(), employee.getLastName(), Employee.normalizeEmail(employee.getEmail()))
+                .stream().findFirst();
+    }
+
+    @Override
+    public List<Employee> insertAllIfEmailAbsent(List<Employee> employees) {
+        return jdbcTemplate.query(INSERT_ALL_IF_EMAIL_ABSENT, EMPLOYEE_ROW_MAPPER,
+                employees.stream().map(Employee::getFirstName).toArray(String[]::new),
+                employees.stream().map(Employee::getLastName).toArray(String[]::new),
+                employees.stream().map(Employee::getEmail).map(Employee::normalizeEmail).toArray(String[]::new));
+    }
+
+    @Override
+    public Optional<Employee> updateFields(long id, EmployeePatch patch) {
+        StringBuilder sql = new StringBuilder("update employees set version = version + 1");
+        List<Object> args = new ArrayList<>();
+        if (patch.firstName() != null) {
+            sql.append(", first_name = ?");
+            args.add(patch.firstName());
+        }
+        if (patch.lastName() != null) {
+            sql.append(", last_name = ?");
+            args.add(patch.lastName());
+        }
+        if (patch.email() != null) {
+            sql.append(", email = ?");
+            args.add(Employee.normalizeEmail(patch.email()));
+        }
+        sql.append(" where id = ?");
+        args.add(id);
+        if (patch.version() != null) {
+            sql.append(" and version = ?");
+            args.add(patch.version());
+        }
+        sql.append(" returning ").append(EMPLOYEE_COLUMNS);
+        return jdbcTemplate.query(sql.toString(), EMPLOYEE_ROW_MAPPER, args.toArray()).stream().findFirst();
+    }
+
+    @Override
+    public List<EmployeeView> search(EmployeeSearchCriteria criteria, long afterId, int limit) {
+        // predicates are written to match the expression indexes in db/migration/postgresql/V6__employees_search_indexes.sql
+        StringBuilder sql = new StringBuilder("select ").append(EMPLOYEE_COLUMNS).append(" from employees where id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        if (criteria.lastName() != null && !criteria.lastName().isBlank()) {
+            sql.append(" and lower(last_name) like ?");
+            args.add(prefixPattern(criteria.lastName()));
+        }
+        if (criteria.firstName() != null && !criteria.firstName().isBlank()) {
+            sql.append(" and lower(first_name) like ?");
+            args.add(prefixPattern(criteria.firstName()));
+        }
+        if (criteria.emailDomain() != null && !criteria.emailDomain().isBlank()) {
+            sql.append(" and split_part(email, '@', 2) = ?");
+            args.add(Employee.normalizeEmail(criteria.emailDomain()));
+        }
+        if (criteria.minId() != null) {
+            sql.append(" and id >= ?");
+            args.add(criteria.minId());
+        }
+        if (criteria.maxId() != null) {
+            sql.append(" and id <= ?");
+            args.add(criteria.maxId());
+        }
+        sql.append(" order by id limit ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), EMPLOYEE_VIEW_ROW_MAPPER, args.toArray());
+    }
+
+    @Override
+    public long deleteByEmailDomain(String domain, int chunkSize) {
+        long deleted = 0;
+        long afterId = 0;
+        while (true) {
+            long[] chunk = jdbcTemplate.queryForObject(DELETE_DOMAIN_CHUNK,
+                    (rs, rowNum) -> new long[]{rs.getLong("last_id"), rs.getLong("deleted")},
+                    domain, afterId, chunkSize);
+            if (chunk[0] == 0) {
+                return deleted;
+            }
+            afterId = chunk[0];
+            deleted += chunk[1];
+        }
+    }
+
+    @Override
+    public List<EmployeeView> findViewsByIds(Collection<Long> ids) {
+        // one array parameter keeps a single prepared statement whatever the batch size
+        return jdbcTemplate.query("select " + EMPLOYEE_COLUMNS + " from employees where id = any(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                EMPLOYEE_VIEW_ROW_MAPPER);
+    }
+
+    @Override
+    public Instant findSettledHorizon(Duration settleTime) {
+        OffsetDateTime horizon = jdbcTemplate.queryForObject("select now() - make_interval(secs => ?)",
+                OffsetDateTime.class, settleTime.toMillis() / 1000.0);
+        return horizon.toInstant();
+    }
+
+    @Override
+    public List<EmployeeChange> findChangesAfter(ChangeToken after, Instant horizon, boolean includeDeletes, int limit) {
+        Object[] range = {utc(after.changedAt()), after.id(), utc(horizon), limit};
+        if (!includeDeletes) {
+            return jdbcTemplate.query(CHANGED_EMPLOYEES, EMPLOYEE_CHANGE_ROW_MAPPER, range);
+        }
+        // each branch walks its own (timestamp, id) index and stops at the limit before the two are merged
+        String sql = "select * from ((" + CHANGED_EMPLOYEES + ") union all (" + DELETED_EMPLOYEES + ")) changes"
+                + " order by changed_at, id limit ?";
+        Object[] args = new Object[range.length * 2 + 1];
+        System.arraycopy(range, 0, args, 0, range.length);
+        System.arraycopy(range, 0, args, range.length, range.length);
+        args[args.length - 1] = limit;
+        return jdbcTemplate.query(sql, EMPLOYEE_CHANGE_ROW_MAPPER, args);
+    }
+
+    @Override
+    public long copyOut(OutputStream out) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(EXPORT_SQL, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public EmployeeImportResult importCsv(InputStream csv, int maxErrors) {
+        jdbcTemplate.execute(CREATE_IMPORT_TABLE);
+        long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(IMPORT_SQL, csv);
+            } catch (SQLException e) {
+                // class 22 covers malformed CSV: wrong column count, unterminated quotes, bad encoding
+                if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+                    throw new InvalidCsvException(e.getMessage(), e);
+                }
+                throw e;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        jdbcTemplate.execute("analyze employee_import");
+        jdbcTemplate.update(REJECT_MISSING_FIELDS);
+        jdbcTemplate.update(REJECT_DUPLICATES_IN_FILE);
+        jdbcTemplate.update(MERGE_IMPORT);
+        long rejected = jdbcTemplate.queryForObject("select count(*) from employee_import where error is not null", Long.class);
+        List<EmployeeImportError> errors = jdbcTemplate.query(
+                "select line, email, error from employee_import where error is not null order by line limit ?",
+                (rs, rowNum) -> new EmployeeImportError(rs.getLong("line"), rs.getString("email"), rs.getString("error")),
+                maxErrors);
+        return new EmployeeImportResult(rows, rows - rejected, rejected, errors);
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static Instant toInstant(OffsetDateTime timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    static String prefixPattern(String prefix) {
+        String escaped = prefix.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return escaped + "%";
+    }
+}
@@ -0,0 +1,72 @@
+package com.olumide.springboottesting.repository;
+
+import com.olumide.springboottesting.dto.IdempotentResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Claims and records {@code Idempotency-Key}s in the {@code idempotency_keys} table, so replays survive a restart
+ * and are shared between instances. Each call runs in its own autocommit statement: a claim must be visible to
+ * other instances before the request it guards starts.
+ */
+@Profile("!reactive")
+@Repository
+public class IdempotencyKeyRepository {
+
+    // takes over a key whose response has expired, or whose claim was left behind by a request that never finished
+    static final String CLAIM_SQL = """
+            insert into idempotency_keys (idempotency_key) values (?)
+            on conflict (idempotency_key) do update set status = null, content_type = null, body = null, request_hash = null, created_at = now()
+            where idempotency_keys.created_at < now() - make_interval(secs => ?)
+               or (idempotency_keys.status is null and idempotency_keys.created_at < now() - make_interval(secs => ?))""";
+
+    static final RowMapper<IdempotentResponse> RESPONSE_ROW_MAPPER = (rs, rowNum) -> new IdempotentResponse(
+            rs.getInt("status"),
+            rs.getString("content_type"),
+            rs.getBytes("body"),
+            rs.getBytes("request_hash"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns true when the caller now holds the key and should run the request.
+     */
+    public boolean claim(String key, Duration ttl, Duration claimTimeout) {
+        return jdbcTemplate.update(CLAIM_SQL, key, ttl.toSeconds(), claimTimeout.toSeconds()) == 1;
+    }
+
+    /**
+     * Returns the recorded response, or empty while the key is still claimed by a running request.
+     */
+    public Optional<IdempotentResponse> findResponse(String key) {
+        return jdbcTemplate.query("select status, content_type, body, request_hash from idempotency_keys"
+                + " where idempotency_key = ? and status is not null", RESPONSE_ROW_MAPPER, key).stream().findFirst();
+    }
+
+    public void saveResponse(String key, IdempotentResponse response) {
+        jdbcTemplate.update("update idempotency_keys set status = ?, content_type = ?, body = ?, request_hash = ?"
+                        + " where idempotency_key = ?",
+                response.status(), response.contentType(), response.body(), response.requestHash(), key);
+    }
+
+    /**
+     * Gives up a claim whose request failed in a way worth retrying, so the next attempt runs again.
+     */
+    public void release(String key) {
+        jdbcTemplate.update("delete from idempotency_keys where idempotency_key = ? and status is null", key);
+    }
+
+    public int deleteOlderThan(Duration ttl) {
+        return jdbcTemplate.update("delete from idempotency_keys where created_at < now() - make_interval(secs => ?)",
+                ttl.toSeconds());
+    }
+}
@@ -0,0 +1,222 @@
+package com.olumide.springboottesting.repository;
+
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.model.Employee;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.olumide.springboottesting.repository.EmployeeRepositoryCustomImpl.EMPLOYEE_COLUMNS;
+import static com.olumide.springboottesting.repository.EmployeeRepositoryCustomImpl.prefixPattern;
+
+/**
+ * Non-blocking counterpart of {@link EmployeeRepository} for the reactive profile. Issues the same
+ * statements as {@link EmployeeRepositoryCustomImpl} over R2DBC so both stacks share one schema and
+ * the same duplicate-email and optimistic-locking rules.
+ */
+@Profile("reactive")
+@Repository
+public class ReactiveEmployeeRepository {
+
+    private final DatabaseClient databaseClient;
+
+    private final int fetchSize;
+
+    public ReactiveEmployeeRepository(DatabaseClient databaseClient,
+                                      @Value("${employee.reactive.fetch-size:500}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    public Flux<Employee> findAll() {
+        // rows are pulled from the portal fetchSize at a time, so a slow client throttles the query
+        return databaseClient.sql("select " + EMPLOYEE_COLUMNS + " from employees order by id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .all();
+    }
+
+    public Mono<Employee> findById(long id) {
+        return databaseClient.sql("select " + EMPLOYEE_COLUMNS + " from employees where id = :id")
+                .bind("id", id)
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .one();
+    }
+
+    public Flux<Employee> findAfter(long afterId, int limit) {
+        return databaseClient.sql("select " + EMPLOYEE_COLUMNS + " from employees where id > :afterId order by id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .all();
+    }
+
+    public Flux<Employee> search(EmployeeSearchCriteria criteria, long afterId, int limit) {
+        // same predicates as EmployeeRepositoryCustomImpl#search, so the V6 expression indexes apply here too
+        StringBuilder sql = new StringBuilder("select ").append(EMPLOYEE_COLUMNS).append(" from employees where id > :afterId");
+        Map<String, Object> binds = new LinkedHashMap<>();
+        binds.put("afterId", afterId);
+        if (criteria.lastName() != null && !criteria.lastName().isBlank()) {
+            sql.append(" and lower(last_name) like :lastName");
+            binds.put("lastName", prefixPattern(criteria.lastName()));
+        }
+        if (criteria.firstName() != null && !criteria.firstName().isBlank()) {
+            sql.append(" and lower(first_name) like :firstName");
+            binds.put("firstName", prefixPattern(criteria.firstName()));
+        }
+        if (criteria.emailDomain() != null && !criteria.emailDomain().isBlank()) {
+            sql.append(" and split_part(email, '@', 2) = :emailDomain");
+            binds.put("emailDomain", Employee.normalizeEmail(criteria.emailDomain()));
+        }
+        if (criteria.minId() != null) {
+            sql.append(" and id >= :minId");
+            binds.put("minId", criteria.minId());
+        }
+        if (criteria.maxId() != null) {
+            sql.append(" and id <= :maxId");
+            binds.put("maxId", criteria.maxId());
+        }
+        sql.append(" order by id limit :limit");
+        binds.put("limit", limit);
+        return databaseClient.sql(sql.toString())
+                .bindValues(binds)
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .all();
+    }
+
+    public Mono<Boolean> existsById(long id) {
+        return databaseClient.sql("select exists(select 1 from employees where id = :id)")
+                .bind("id", id)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    public Mono<Employee> insertIfEmailAbsent(Employee employee) {
+        return databaseClient.sql("""
+                        insert into employees (id, first_name, last_name, email, version)
+                        values (nextval('employees_seq'), :firstName, :lastName, :email, 0)
+                        on conflict (email) do nothing
+                        returning\s""" + EMPLOYEE_COLUMNS)
+                .bind("firstName", employee.getFirstName())
+                .bind("lastName", employee.getLastName())
+                .bind("email", Employee.normalizeEmail(employee.getEmail()))
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .one();
+    }
+
+    /**
+     * Inserts the employees in one statement, skipping each one whose email another row already holds, as
+     * {@link EmployeeRepositoryCustomImpl#insertAllIfEmailAbsent} does. Emits the inserted rows in no particular order.
+     */
+    public Flux<Employee> insertAllIfEmailAbsent(List<Employee> employees) {
+        return databaseClient.sql("""
+                        insert into employees (id, first_name, last_name, email, version)
+                        select nextval('employees_seq'), first_name, last_name, email, 0
+                        from unnest(:firstNames::text[], :lastNames::text[], :emails::text[])
+                             with ordinality as t(first_name, last_name, email, line)
+                        order by line
+                        on conflict (email) do nothing
+                        returning\s""" + EMPLOYEE_COLUMNS)
+                .bind("firstNames", employees.stream().map(Employee::getFirstName).toArray(String[]::new))
+                .bind("lastNames", employees.stream().map(Employee::getLastName).toArray(String[]::new))
+                .bind("emails", employees.stream().map(Employee::getEmail).map(Employee::normalizeEmail).toArray(String[]::new))
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .all();
+    }
+
+    public Mono<Employee> updateFields(long id, EmployeePatch patch) {
+        StringBuilder sql = new StringBuilder("update employees set version = version + 1");
+        if (patch.firstName() != null) {
+            sql.append(", first_name = :firstName");
+        }
+        if (patch.lastName() != null) {
+            sql.append(", last_name = :lastName");
+        }
+        if (patch.email() != null) {
+            sql.append(", email = :email");
+        }
+        sql.append(" where id = :id");
+        if (patch.version() != null) {
+            sql.append(" and version = :version");
+        }
+        sql.append(" returning ").append(EMPLOYEE_COLUMNS);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("id", id);
+        if (patch.firstName() != null) {
+            spec = spec.bind("firstName", patch.firstName());
+        }
+        if (patch.lastName() != null) {
+            spec = spec.bind("lastName", patch.lastName());
+        }
+        if (patch.email() != null) {
+            spec = spec.bind("email", Employee.normalizeEmail(patch.email()));
+        }
+        if (patch.version() != null) {
+            spec = spec.bind("version", patch.version());
+        }
+        return spec.map(ReactiveEmployeeRepository::toEmployee).one();
+    }
+
+    public Mono<Long> deleteById(long id) {
+        return databaseClient.sql("delete from employees where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByIds(Collection<Long> ids) {
+        return databaseClient.sql("delete from employees where id = any(:ids)")
+                .bind("ids", ids.toArray(Long[]::new))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Deletes every employee whose email is at {@code domain}, one chunk of {@code chunkSize} rows per statement, as
+     * {@link EmployeeRepositoryCustomImpl#deleteByEmailDomain} does. Emits the number of rows deleted.
+     */
+    public Mono<Long> deleteByEmailDomain(String domain, int chunkSize) {
+        return deleteDomainChunks(domain, 0, chunkSize, 0);
+    }
+
+    private Mono<Long> deleteDomainChunks(String domain, long afterId, int chunkSize, long deleted) {
+        return databaseClient.sql("""
+                        with chunk as (
+                            select id from employees where split_part(email, '@', 2) = :domain and id > :afterId
+                            order by id limit :limit),
+                        deleted as (
+                            delete from employees where id in (select id from chunk) returning id)
+                        select (select max(id) from chunk) as last_id, (select count(*) from deleted) as deleted""")
+                .bind("domain", domain)
+                .bind("afterId", afterId)
+                .bind("limit", chunkSize)
+                .map(row -> {
+                    Long lastId = row.get("last_id", Long.class);
+                    return new long[]{lastId == null ? 0 : lastId, row.get("deleted", Long.class)};
+                })
+                .one()
+                .flatMap(chunk -> chunk[0] == 0
+                        ? Mono.just(deleted)
+                        : deleteDomainChunks(domain, chunk[0], chunkSize, deleted + chunk[1]));
+    }
+
+    private static Employee toEmployee(Readable row) {
+        return Employee.builder()
+                .id(row.get("id", Long.class))
+                .firstName(row.get("first_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .email(row.get("email", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
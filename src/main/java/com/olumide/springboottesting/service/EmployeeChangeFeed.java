@@ -0,0 +1,219 @@
+package com.olumide.springboottesting.service;
+
+import com.olumide.springboottesting.dto.EmployeeChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fans committed employee changes out to Server-Sent Events subscribers.
+ * <p>
+ * Every change gets the next sequence number and is kept in a fixed-size ring buffer, so a client
+ * reconnecting with {@code Last-Event-ID} is replayed what it missed. Sequences restart with the process, so
+ * event ids are {@code <epoch>:<sequence>}, the epoch being drawn at startup. A client whose id has already
+ * fallen out of the buffer, or carries another epoch (from before a restart, or from another instance), gets a
+ * single {@code RESET} event instead.
+ * <p>
+ * Publishing never blocks on a socket: each subscriber has a bounded queue drained on its own virtual
+ * thread. A subscriber that lets its queue fill up is disconnected and its queue dropped; it reconnects
+ * and resumes from the ring buffer like any other client.
+ */
+@Profile("!reactive")
+@Component
+public class EmployeeChangeFeed {
+
+    record Change(long sequence, EmployeeChangeEvent event) {
+    }
+
+    private final Change[] buffer;
+
+    private final int subscriberQueueSize;
+
+    private final long timeoutMillis;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Executor senders;
+
+    private final String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+
+    // guarded by this, together with buffer
+    private long lastSequence;
+
+    @Autowired
+    public EmployeeChangeFeed(@Value("${employee.change-feed.buffer-size:1024}") int bufferSize,
+                              @Value("${employee.change-feed.subscriber-queue-size:256}") int subscriberQueueSize,
+                              @Value("${employee.change-feed.timeout:30m}") Duration timeout) {
+        this(bufferSize, subscriberQueueSize, timeout, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    EmployeeChangeFeed(int bufferSize, int subscriberQueueSize, Duration timeout, Executor senders) {
+        this.buffer = new Change[bufferSize];
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.senders = senders;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(EmployeeChangeEvent event) {
+        // sequencing and enqueueing happen under one lock so every subscriber sees changes in sequence order
+        synchronized (this) {
+            Change change = new Change(++lastSequence, event);
+            buffer[(int) (change.sequence() % buffer.length)] = change;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        synchronized (this) {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.scheduleDrain();
+        return emitter;
+    }
+
+    private void replay(Subscriber subscriber, String lastEventId) {
+        long last = sequenceOf(lastEventId);
+        long oldest = Math.max(1, lastSequence - buffer.length + 1);
+        if (last < 0 || last > lastSequence || last + 1 < oldest) {
+            subscriber.enqueue(new Change(lastSequence, EmployeeChangeEvent.reset()));
+            return;
+        }
+        for (long sequence = last + 1; sequence <= lastSequence; sequence++) {
+            subscriber.enqueue(buffer[(int) (sequence % buffer.length)]);
+        }
+    }
+
+    /** The sequence in an event id of this epoch, or -1 for any other id. */
+    private long sequenceOf(String eventId) {
+        String prefix = epoch + ":";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    String eventId(long sequence) {
+        return epoch + ":" + sequence;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        if (senders instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Deque<Change> pending = new ArrayDeque<>();
+
+        // guarded by this, together with pending
+        private boolean draining;
+
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /** Replayed changes skip the bound: the ring buffer already caps how many there can be. */
+        synchronized void enqueue(Change change) {
+            pending.add(change);
+        }
+
+        void offer(Change change) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.size() < subscriberQueueSize) {
+                    pending.add(change);
+                    change = null;
+                }
+            }
+            if (change != null) {
+                close();
+            } else {
+                scheduleDrain();
+            }
+        }
+
+        synchronized void scheduleDrain() {
+            if (!draining && !closed && !pending.isEmpty()) {
+                draining = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Change change;
+                synchronized (this) {
+                    change = closed ? null : pending.poll();
+                    if (change == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(SseEmitter.event()
+                            .id(eventId(change.sequence()))
+                            .name(change.event().type().name().toLowerCase())
+                            .data(change.event()));
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                }
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+            }
+            subscribers.remove(this);
+            // completing takes the emitter's lock, which a send blocked on a slow socket may be holding
+            senders.execute(emitter::complete);
+        }
+    }
+}
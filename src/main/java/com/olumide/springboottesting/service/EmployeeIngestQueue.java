@@ -0,0 +1,272 @@
+package com.olumide.springboottesting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.olumide.springboottesting.dto.EmployeeBatchResult;
+import com.olumide.springboottesting.dto.EmployeeIngestStatus;
+import com.olumide.springboottesting.exception.DuplicateEmailException;
+import com.olumide.springboottesting.exception.IngestQueueFullException;
+import com.olumide.springboottesting.exception.InvalidEmployeeException;
+import com.olumide.springboottesting.model.Employee;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ingestion for high-volume feeds (opt-in with {@code employee.ingest.enabled}). An accepted employee
+ * is journaled to local disk, queued, and acknowledged with a ticket; a single writer thread drains the queue into
+ * {@link EmployeeService#saveEmployees} batches, flushing once {@code batch-size} rows are waiting or
+ * {@code flush-interval} after the first of them arrived.
+ * <p>
+ * The queue holds at most {@code queue-capacity} rows, counting the batch being written; beyond that submissions
+ * are refused with {@link IngestQueueFullException}. Rows still in the journal at startup, because the previous
+ * run stopped before writing them, are queued again ahead of new submissions.
+ */
+@Profile("!reactive")
+@Component
+@ConditionalOnProperty(name = "employee.ingest.enabled", havingValue = "true")
+public class EmployeeIngestQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeIngestQueue.class);
+
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofSeconds(5);
+
+    record Ingestion(String ticket, Employee employee) {
+    }
+
+    private final EmployeeService employeeService;
+
+    private final IngestJournal journal;
+
+    private final BlockingQueue<Ingestion> queue;
+
+    // one permit per row between acceptance and the end of its batch, so the bound covers the batch in flight too
+    private final Semaphore capacity;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final Duration shutdownTimeout;
+
+    private final Cache<String, EmployeeIngestStatus> statuses;
+
+    private final Thread writer;
+
+    private final Counter rejected;
+
+    private final Timer flushes;
+
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running = true;
+
+    public EmployeeIngestQueue(EmployeeService employeeService, ObjectMapper objectMapper,
+                               ObjectProvider<MeterRegistry> meterRegistry,
+                               @Value("${employee.ingest.journal:${java.io.tmpdir}/employee-ingest.journal}") String journalPath,
+                               @Value("${employee.ingest.journal-compact-size:67108864}") long journalCompactSize,
+                               @Value("${employee.ingest.queue-capacity:10000}") int queueCapacity,
+                               @Value("${employee.ingest.batch-size:500}") int batchSize,
+                               @Value("${employee.ingest.flush-interval:50ms}") Duration flushInterval,
+                               @Value("${employee.ingest.status-ttl:1h}") Duration statusTtl,
+                               @Value("${employee.ingest.shutdown-timeout:10s}") Duration shutdownTimeout) throws IOException {
+        this.employeeService = employeeService;
+        this.journal = new IngestJournal(Path.of(journalPath), objectMapper, journalCompactSize);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.capacity = new Semaphore(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(queueCapacity * 10L)
+                .expireAfterWrite(statusTtl)
+                .build();
+        MeterRegistry meters = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("employee.ingest.queue.depth", capacity, permits -> queueCapacity - permits.availablePermits())
+                .description("Rows accepted and not yet written, including the batch being written")
+                .register(meters);
+        this.rejected = Counter.builder("employee.ingest.rejected")
+                .description("Submissions refused because the queue was full")
+                .register(meters);
+        this.flushes = Timer.builder("employee.ingest.flush")
+                .description("Time to write one batch, retries included")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meters);
+        this.batchSizes = DistributionSummary.builder("employee.ingest.batch.size")
+                .description("Rows written per batch")
+                .register(meters);
+
+        for (IngestJournal.Entry entry : journal.recover()) {
+            if (!capacity.tryAcquire()) {
+                // capacity was lowered since the last run: these stay journaled for the next one
+                log.warn("Ingest queue is smaller than its journal; {} rows left for the next start", journal.outstanding() - queue.size());
+                break;
+            }
+            queue.add(new Ingestion(entry.ticket(), entry.employee()));
+            statuses.put(entry.ticket(), EmployeeIngestStatus.queued(entry.ticket(), entry.employee().getEmail()));
+        }
+        if (!queue.isEmpty()) {
+            log.info("Requeued {} journaled rows from the previous run", queue.size());
+        }
+        this.writer = Thread.ofPlatform().name("employee-ingest-writer").start(this::drain);
+    }
+
+    public EmployeeIngestStatus submit(Employee employee) {
+        if (isBlank(employee.getFirstName()) || isBlank(employee.getLastName()) || isBlank(employee.getEmail())) {
+            throw new InvalidEmployeeException("firstName, lastName and email are required");
+        }
+        if (!running || !capacity.tryAcquire()) {
+            rejected.increment();
+            throw new IngestQueueFullException("Ingest queue is full, retry later");
+        }
+        String ticket = UUID.randomUUID().toString();
+        employee.setId(null);
+        try {
+            journal.append(ticket, employee);
+        } catch (IOException e) {
+            capacity.release();
+            throw new UncheckedIOException("Could not journal the employee", e);
+        }
+        EmployeeIngestStatus status = EmployeeIngestStatus.queued(ticket, employee.getEmail());
+        statuses.put(ticket, status);
+        queue.add(new Ingestion(ticket, employee));
+        return status;
+    }
+
+    public Optional<EmployeeIngestStatus> getStatus(String ticket) {
+        return Optional.ofNullable(statuses.getIfPresent(ticket));
+    }
+
+    private void drain() {
+        List<Ingestion> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                Ingestion first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Ingestion next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // whatever was not written is still in the journal
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(List<Ingestion> batch) throws InterruptedException {
+        long started = System.nanoTime();
+        List<EmployeeIngestStatus> outcomes = write(batch);
+        flushes.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        outcomes.forEach(outcome -> statuses.put(outcome.ticket(), outcome));
+        try {
+            journal.markDone(batch.stream().map(Ingestion::ticket).toList());
+        } catch (IOException e) {
+            log.warn("Could not mark {} ingested rows done in the journal: {}", batch.size(), e.getMessage());
+        }
+        capacity.release(batch.size());
+    }
+
+    private List<EmployeeIngestStatus> write(List<Ingestion> batch) throws InterruptedException {
+        List<Employee> employees = batch.stream().map(Ingestion::employee).toList();
+        long backoff = 100;
+        while (true) {
+            try {
+                List<EmployeeBatchResult> results = employeeService.saveEmployees(employees);
+                List<EmployeeIngestStatus> outcomes = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    outcomes.add(EmployeeIngestStatus.of(batch.get(i).ticket(), results.get(i)));
+                }
+                return outcomes;
+            } catch (DataIntegrityViolationException e) {
+                // a row broke a constraint the batch insert does not skip over; settle the rows one by one so only it fails
+                return writeOneByOne(batch);
+            } catch (CannotCreateTransactionException | DataAccessResourceFailureException | TransientDataAccessException e) {
+                // the database is unreachable or busy: keep the batch and wait, the queue bound pushes back on clients
+                log.warn("Ingest batch of {} failed, retrying in {} ms: {}", batch.size(), backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF.toMillis());
+            } catch (RuntimeException e) {
+                log.error("Ingest batch of {} failed", batch.size(), e);
+                return batch.stream().map(ingestion -> EmployeeIngestStatus.failed(ingestion.ticket(), ingestion.employee().getEmail())).toList();
+            }
+        }
+    }
+
+    private List<EmployeeIngestStatus> writeOneByOne(List<Ingestion> batch) {
+        List<EmployeeIngestStatus> outcomes = new ArrayList<>(batch.size());
+        for (Ingestion ingestion : batch) {
+            Employee employee = ingestion.employee();
+            try {
+                Employee saved = employeeService.saveEmployee(employee);
+                outcomes.add(EmployeeIngestStatus.of(ingestion.ticket(), EmployeeBatchResult.created(0, saved.getId(), saved.getEmail())));
+            } catch (DuplicateEmailException e) {
+                outcomes.add(EmployeeIngestStatus.of(ingestion.ticket(), EmployeeBatchResult.duplicate(0, Employee.normalizeEmail(employee.getEmail()))));
+            } catch (RuntimeException e) {
+                log.error("Ingesting {} failed", ingestion.ticket(), e);
+                outcomes.add(EmployeeIngestStatus.failed(ingestion.ticket(), employee.getEmail()));
+            }
+        }
+        return outcomes;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException, IOException {
+        running = false;
+        writer.join(shutdownTimeout.toMillis());
+        if (writer.isAlive()) {
+            log.warn("Ingest writer did not drain within {}, {} rows left in the journal", shutdownTimeout, journal.outstanding());
+            writer.interrupt();
+            writer.join(shutdownTimeout.toMillis());
+        }
+        journal.close();
+    }
+}
@@ -1,16 +1,41 @@
 package com.olumide.springboottesting.service;
 
+import com.olumide.springboottesting.dto.EmployeeBatchResult;
+import com.olumide.springboottesting.dto.EmployeeChanges;
+import com.olumide.springboottesting.dto.EmployeeDeleteRequest;
+import com.olumide.springboottesting.dto.EmployeeDeleteResult;
+import com.olumide.springboottesting.dto.EmployeeImportResult;
+import com.olumide.springboottesting.dto.EmployeeLookupResult;
+import com.olumide.springboottesting.dto.EmployeePage;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.dto.EmployeeView;
 import com.olumide.springboottesting.exception.ResourceNotFoundException;
 import com.olumide.springboottesting.model.Employee;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
 
     public Employee saveEmployee(Employee employee);
-    List<Employee> getAllEmployees();
-    Optional<Employee> getById(Long id);
+    List<EmployeeBatchResult> saveEmployees(List<Employee> employees);
+    List<EmployeeView> getAllEmployees();
+    long getChangeCount();
+    EmployeePage getEmployeePage(String cursor, int size);
+    EmployeePage searchEmployees(EmployeeSearchCriteria criteria, String cursor, int size);
+    EmployeeChanges getChangesSince(String token, int size);
+    void streamAllEmployees(Consumer<Employee> consumer);
+    long exportCsv(OutputStream out);
+    EmployeeImportResult importCsv(InputStream csv);
+    Optional<EmployeeView> getById(Long id);
+    List<EmployeeLookupResult> getByIds(List<Long> ids);
     Employee updateEmployee(Employee employee);
+    Employee patchEmployee(Long id, EmployeePatch patch);
     void deleteEmployee(Long id);
+    void deleteEmployee(Long id, long expectedVersion);
+    EmployeeDeleteResult deleteEmployees(EmployeeDeleteRequest request);
 }
@@ -0,0 +1,189 @@
+package com.olumide.springboottesting.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olumide.springboottesting.model.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only file of ingestions that were acknowledged but not yet written to the database, one line each:
+ * {@code A <ticket> <employee json>} when accepted and {@code D <ticket>} once its batch is written.
+ * <p>
+ * An acceptance is forced to disk before {@link #append} returns. Concurrent appends share a force: whoever
+ * forces first covers every line written before it started. Done markers are not forced; losing one only means
+ * the row is offered again after a crash, and the duplicate-email check turns that into a no-op. The file is
+ * emptied whenever nothing is outstanding, and rewritten (to a temporary file, then moved over) once it passes
+ * the compaction threshold.
+ */
+class IngestJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestJournal.class);
+
+    record Entry(String ticket, Employee employee) {
+    }
+
+    private final Path path;
+
+    private final ObjectMapper objectMapper;
+
+    private final long compactThreshold;
+
+    // taken before this whenever both are needed: the channel is only replaced while no force is running
+    private final Object syncLock = new Object();
+
+    // guarded by this, together with unfinished and written
+    private FileChannel channel;
+
+    private final Map<String, String> unfinished = new LinkedHashMap<>();
+
+    private long written;
+
+    // guarded by syncLock; counts bytes ever appended, so it survives truncation
+    private long synced;
+
+    IngestJournal(Path path, ObjectMapper objectMapper, long compactThreshold) throws IOException {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.compactThreshold = compactThreshold;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+    }
+
+    /**
+     * Returns the entries left unfinished by the previous run, in acceptance order, and compacts the file to
+     * hold only those. A torn last line is the write of a request that was never acknowledged, and is dropped.
+     */
+    List<Entry> recover() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                String content = Files.readString(path, StandardCharsets.UTF_8);
+                for (String line : content.split("\n")) {
+                    if (line.startsWith("A ") && line.indexOf(' ', 2) > 0) {
+                        unfinished.put(line.substring(2, line.indexOf(' ', 2)), line);
+                    } else if (line.startsWith("D ")) {
+                        unfinished.remove(line.substring(2));
+                    } else if (!line.isEmpty()) {
+                        log.warn("Skipping unreadable ingest journal line of {} bytes", line.length());
+                    }
+                }
+                List<Entry> entries = new ArrayList<>(unfinished.size());
+                for (Map.Entry<String, String> line : unfinished.entrySet()) {
+                    String json = line.getValue().substring(line.getValue().indexOf(' ', 2) + 1);
+                    try {
+                        entries.add(new Entry(line.getKey(), objectMapper.readValue(json, Employee.class)));
+                    } catch (JsonProcessingException e) {
+                        log.warn("Skipping unreadable ingest journal entry {}", line.getKey());
+                    }
+                }
+                unfinished.keySet().retainAll(entries.stream().map(Entry::ticket).toList());
+                rewrite();
+                return entries;
+            }
+        }
+    }
+
+    void append(String ticket, Employee employee) throws IOException {
+        String line = "A " + ticket + " " + objectMapper.writeValueAsString(employee);
+        long end;
+        synchronized (this) {
+            write(line);
+            unfinished.put(ticket, line);
+            end = written;
+        }
+        synchronized (syncLock) {
+            if (synced >= end) {
+                return;
+            }
+            FileChannel target;
+            long covered;
+            synchronized (this) {
+                target = channel;
+                covered = written;
+            }
+            target.force(false);
+            synced = covered;
+        }
+    }
+
+    void markDone(Collection<String> tickets) throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                for (String ticket : tickets) {
+                    if (unfinished.remove(ticket) != null) {
+                        write("D " + ticket);
+                    }
+                }
+                if (unfinished.isEmpty()) {
+                    channel.truncate(0);
+                    channel.position(0);
+                } else if (channel.size() > compactThreshold) {
+                    rewrite();
+                }
+            }
+        }
+    }
+
+    synchronized int outstanding() {
+        return unfinished.size();
+    }
+
+    // callers hold syncLock and this
+    private void rewrite() throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (String line : unfinished.values()) {
+                writeFully(out, line);
+            }
+            out.force(false);
+        }
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        synced = written;
+    }
+
+    private void write(String line) throws IOException {
+        written += writeFully(channel, line);
+    }
+
+    private static int writeFully(FileChannel target, String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+}
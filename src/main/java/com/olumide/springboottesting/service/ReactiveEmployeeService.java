@@ -0,0 +1,27 @@
+package com.olumide.springboottesting.service;
+
+import com.olumide.springboottesting.dto.EmployeeBatchResult;
+import com.olumide.springboottesting.dto.EmployeeDeleteRequest;
+import com.olumide.springboottesting.dto.EmployeeDeleteResult;
+import com.olumide.springboottesting.dto.EmployeePage;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveEmployeeService {
+
+    Mono<Employee> saveEmployee(Employee employee);
+    Mono<List<EmployeeBatchResult>> saveEmployees(List<Employee> employees);
+    Flux<Employee> getAllEmployees();
+    Mono<EmployeePage> getEmployeePage(String cursor, int size);
+    Mono<EmployeePage> searchEmployees(EmployeeSearchCriteria criteria, String cursor, int size);
+    Mono<Employee> getById(Long id);
+    Mono<Employee> updateEmployee(Employee employee);
+    Mono<Employee> patchEmployee(Long id, EmployeePatch patch);
+    Mono<Void> deleteEmployee(Long id);
+    Mono<EmployeeDeleteResult> deleteEmployees(EmployeeDeleteRequest request);
+}
@@ -1,42 +1,254 @@
 package com.olumide.springboottesting.service.implementation;
 
+import com.olumide.springboottesting.config.CacheConfig;
+import com.olumide.springboottesting.dto.ChangeToken;
+import com.olumide.springboottesting.dto.EmployeeBatchResult;
+import com.olumide.springboottesting.dto.EmployeeChange;
+import com.olumide.springboottesting.dto.EmployeeChangeEvent;
+import com.olumide.springboottesting.dto.EmployeeChanges;
+import com.olumide.springboottesting.dto.EmployeeDeleteRequest;
+import com.olumide.springboottesting.dto.EmployeeDeleteResult;
+import com.olumide.springboottesting.dto.EmployeeImportResult;
+import com.olumide.springboottesting.dto.EmployeeLookupResult;
+import com.olumide.springboottesting.dto.EmployeePage;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.dto.PageCursor;
+import com.olumide.springboottesting.exception.ChangeTokenExpiredException;
+import com.olumide.springboottesting.exception.DuplicateEmailException;
 import com.olumide.springboottesting.exception.ResourceNotFoundException;
+import com.olumide.springboottesting.exception.TooManyIdsException;
+import com.olumide.springboottesting.exception.VersionConflictException;
 import com.olumide.springboottesting.model.Employee;
 import com.olumide.springboottesting.repository.EmployeeRepository;
 import com.olumide.springboottesting.service.EmployeeService;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Profile("!reactive")
 @Service
+@Timed(value = "employee.service", percentiles = {0.5, 0.95, 0.99})
 public class EmployeeServiceImpl implements EmployeeService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final int INSERT_CHUNK_SIZE = 1000;
+
+    static final int DELETE_CHUNK_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeServiceImpl.class);
+
 
      EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository){
+    // change events are delivered to the SSE feed once the surrounding transaction commits
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EmployeeViewLoader employeeViewLoader;
+
+    private final Duration changeSettleTime;
+
+    private final Duration tombstoneRetention;
+
+    @Value("${employee.mget.max-ids:500}")
+    int multiGetMaxIds = 500;
+
+    @Value("${employee.import.max-errors:1000}")
+    int importMaxErrors = 1000;
+
+    @Value("${employee.import.progress-interval:1000000}")
+    long importProgressInterval = 1_000_000;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, ApplicationEventPublisher eventPublisher,
+                               EmployeeViewLoader employeeViewLoader,
+                               @Value("${employee.changes.settle-time:5s}") Duration changeSettleTime,
+                               @Value("${employee.changes.tombstone-retention:7d}") Duration tombstoneRetention){
         this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
+        this.employeeViewLoader = employeeViewLoader;
+        this.changeSettleTime = changeSettleTime;
+        this.tombstoneRetention = tombstoneRetention;
     }
 
     @Override
+    // the cache holds EmployeeView, so drop any remembered miss for the new id instead of putting the entity
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#result.id")
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> employeeOptional = employeeRepository.findByEmail(employee.getEmail());
-        if(employeeOptional.isPresent()){
-            throw new ResourceNotFoundException(String.format("Employee already exist with given email %s",employeeOptional.get().getEmail()));
+        Employee saved = employeeRepository.insertIfEmailAbsent(employee)
+                .orElseThrow(() -> new DuplicateEmailException(
+                        String.format("Employee already exist with given email %s", Employee.normalizeEmail(employee.getEmail()))));
+        eventPublisher.publishEvent(EmployeeChangeEvent.created(saved));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+        EmployeeBatchResult[] results = new EmployeeBatchResult[employees.size()];
+        Map<String, Integer> insertIndexes = new HashMap<>();
+        List<Employee> toInsert = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            employee.setEmail(Employee.normalizeEmail(employee.getEmail()));
+            // the first row carrying an email wins; a later one in the same request is a duplicate of it
+            if (insertIndexes.putIfAbsent(employee.getEmail(), i) != null) {
+                results[i] = EmployeeBatchResult.duplicate(i, employee.getEmail());
+                continue;
+            }
+            toInsert.add(employee);
         }
-        return employeeRepository.save(employee);
+        // emails taken by another row, even one committed after the request arrived, are skipped by the insert
+        // rather than failing it, and come back as duplicates below
+        for (int from = 0; from < toInsert.size(); from += INSERT_CHUNK_SIZE) {
+            List<Employee> chunk = toInsert.subList(from, Math.min(from + INSERT_CHUNK_SIZE, toInsert.size()));
+            for (Employee saved : employeeRepository.insertAllIfEmailAbsent(chunk)) {
+                int index = insertIndexes.get(saved.getEmail());
+                results[index] = EmployeeBatchResult.created(index, saved.getId(), saved.getEmail());
+                eventPublisher.publishEvent(EmployeeChangeEvent.created(saved));
+            }
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = EmployeeBatchResult.duplicate(i, employees.get(i).getEmail());
+            }
+        }
+        return List.of(results);
     }
 
     @Override
-    public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getAllEmployees() {
+        return employeeRepository.findAllViews();
     }
 
     @Override
-    public Optional<Employee> getById(Long id) {
-        Optional<Employee> employeeOptional = employeeRepository.findById(id);
+    public long getChangeCount() {
+        return employeeRepository.findChangeCount();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeePage(String cursor, int size) {
+        int pageSize = pageSize(size);
+        // fetch one extra row to learn whether another page exists without a count query
+        List<EmployeeView> rows = employeeRepository.findViewsByIdGreaterThan(PageCursor.decode(cursor), PageRequest.of(0, pageSize + 1));
+        return toPage(rows, pageSize);
+    }
+
+    @Override
+    public EmployeePage searchEmployees(EmployeeSearchCriteria criteria, String cursor, int size) {
+        int pageSize = pageSize(size);
+        List<EmployeeView> rows = employeeRepository.search(criteria, PageCursor.decode(cursor), pageSize + 1);
+        return toPage(rows, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeChanges getChangesSince(String token, int size) {
+        int pageSize = pageSize(size);
+        ChangeToken since = ChangeToken.decode(token);
+        Instant horizon = employeeRepository.findSettledHorizon(changeSettleTime);
+        // tombstones older than the database's now() minus the retention may already be pruned
+        if (since != null && since.changedAt().isBefore(horizon.plus(changeSettleTime).minus(tombstoneRetention))) {
+            throw new ChangeTokenExpiredException(String.format("Change token %s has expired, resync without since", token));
+        }
+        // a client without a token has no rows to delete, so it only needs the live table
+        List<EmployeeChange> rows = employeeRepository.findChangesAfter(
+                since == null ? ChangeToken.BEGINNING : since, horizon, since != null, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<EmployeeChange> changes = hasMore ? rows.subList(0, pageSize) : rows;
+        List<EmployeeView> updated = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (EmployeeChange change : changes) {
+            if (change.isDeleted()) {
+                deleted.add(change.id());
+            } else {
+                updated.add(change.employee());
+            }
+        }
+        // once caught up the token moves to the horizon, so a client polling a quiet table never sees its token expire
+        ChangeToken next = hasMore ? changes.get(pageSize - 1).position() : new ChangeToken(horizon, 0L);
+        return new EmployeeChanges(updated, deleted, next.encode(), hasMore);
+    }
+
+    @Scheduled(fixedDelayString = "${employee.changes.prune-interval:PT1H}",
+            initialDelayString = "${employee.changes.prune-interval:PT1H}")
+    public void pruneTombstones() {
+        employeeRepository.deleteTombstonesOlderThan(tombstoneRetention.toSeconds());
+    }
+
+    static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    static EmployeePage toPage(List<EmployeeView> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new EmployeePage(rows, null);
+        }
+        List<EmployeeView> items = rows.subList(0, pageSize);
+        return new EmployeePage(items, PageCursor.encode(items.get(pageSize - 1).id()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        employeeRepository.streamAll(consumer);
+    }
+
+    @Override
+    public long exportCsv(OutputStream out) {
+        return employeeRepository.copyOut(out);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, allEntries = true)
+    public EmployeeImportResult importCsv(InputStream csv) {
+        long started = System.nanoTime();
+        InputStream counted = new LineCountingInputStream(csv, importProgressInterval,
+                lines -> log.info("Employee import: {} lines received", lines));
+        EmployeeImportResult result = employeeRepository.importCsv(counted, importMaxErrors);
+        log.info("Employee import: {} rows, {} imported, {} rejected in {} ms", result.rows(), result.imported(),
+                result.rejected(), (System.nanoTime() - started) / 1_000_000);
+        if (result.imported() > 0) {
+            // too many rows to announce one by one; feed subscribers refetch instead
+            eventPublisher.publishEvent(EmployeeChangeEvent.reset());
+        }
+        return result;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
+    public Optional<EmployeeView> getById(Long id) {
+        // misses for the same hot id share one query, and misses for different ids are batched together
+        Optional<EmployeeView> employeeOptional = employeeViewLoader.load(id);
 //        if(employeeOptional.isEmpty()){
 //            throw new ResourceNotFoundException("Employee does not exist");
 //        }
@@ -44,12 +256,89 @@ public class EmployeeServiceImpl implements EmployeeService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeLookupResult> getByIds(List<Long> ids) {
+        if (ids.size() > multiGetMaxIds) {
+            throw new TooManyIdsException(String.format("At most %d ids can be fetched at once, got %d", multiGetMaxIds, ids.size()));
+        }
+        // one array-bound query whatever the number of ids, answered in request order
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, EmployeeView> found = distinct.isEmpty() ? Map.of() : employeeRepository.findViewsByIds(distinct).stream()
+                .collect(Collectors.toMap(EmployeeView::id, Function.identity()));
+        return ids.stream()
+                .map(id -> found.containsKey(id) ? EmployeeLookupResult.found(found.get(id)) : EmployeeLookupResult.notFound(id))
+                .toList();
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#employee.id")
     public Employee updateEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+        return applyPatch(employee.getId(), EmployeePatch.of(employee));
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
+    public Employee patchEmployee(Long id, EmployeePatch patch) {
+        if (patch.isEmpty()) {
+            return employeeRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException(String.format("Employee does not exist with id %d", id)));
+        }
+        return applyPatch(id, patch);
+    }
+
+    private Employee applyPatch(Long id, EmployeePatch patch) {
+        Optional<Employee> updated;
+        try {
+            updated = employeeRepository.updateFields(id, patch);
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateEmailException(
+                    String.format("Employee already exist with given email %s", Employee.normalizeEmail(patch.email())), e);
+        }
+        // the update only misses when the row is gone or its version moved on; tell the two apart off the hot path
+        Employee employee = updated.orElseThrow(() -> employeeRepository.existsById(id)
+                ? new VersionConflictException(String.format("Employee %d was modified, expected version %d", id, patch.version()))
+                : new ResourceNotFoundException(String.format("Employee does not exist with id %d", id)));
+        eventPublisher.publishEvent(EmployeeChangeEvent.updated(employee));
+        return employee;
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
     public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+        if (employeeRepository.deleteRowById(id) == 0) {
+            throw new ResourceNotFoundException(String.format("Employee does not exist with id %d", id));
+        }
+        eventPublisher.publishEvent(EmployeeChangeEvent.deleted(id));
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
+    public void deleteEmployee(Long id, long expectedVersion) {
+        if (employeeRepository.deleteRowByIdAndVersion(id, expectedVersion) == 0) {
+            throw employeeRepository.existsById(id)
+                    ? new VersionConflictException(String.format("Employee %d was modified, expected version %d", id, expectedVersion))
+                    : new ResourceNotFoundException(String.format("Employee does not exist with id %d", id));
+        }
+        eventPublisher.publishEvent(EmployeeChangeEvent.deleted(id));
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, allEntries = true)
+    public EmployeeDeleteResult deleteEmployees(EmployeeDeleteRequest request) {
+        long deleted = 0;
+        if (request.ids() != null) {
+            List<Long> ids = request.ids().stream().distinct().toList();
+            for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+                deleted += employeeRepository.deleteRowsByIdIn(ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size())));
+            }
+        }
+        if (request.emailDomain() != null && !request.emailDomain().isBlank()) {
+            deleted += employeeRepository.deleteByEmailDomain(Employee.normalizeEmail(request.emailDomain()), DELETE_CHUNK_SIZE);
+        }
+        if (deleted > 0) {
+            // the bulk statements don't return which ids went away, so subscribers are told to refetch
+            eventPublisher.publishEvent(EmployeeChangeEvent.reset());
+        }
+        return new EmployeeDeleteResult(deleted);
     }
 }
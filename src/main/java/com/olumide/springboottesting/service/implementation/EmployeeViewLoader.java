@@ -0,0 +1,252 @@
+package com.olumide.springboottesting.service.implementation;
+
+import com.olumide.springboottesting.config.Bulkheads;
+import com.olumide.springboottesting.config.ReplicaDataSource;
+import com.olumide.springboottesting.config.StatementCounter;
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.exception.BulkheadFullException;
+import com.olumide.springboottesting.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces id lookups that miss the cache. Callers asking for an id that is already being fetched wait on the
+ * same query instead of issuing their own, and distinct ids requested within {@code employee.lookup.batch-window}
+ * are fetched together in one {@code id = any(?)} query (flushed early once {@code employee.lookup.max-batch-size}
+ * ids are waiting).
+ * <p>
+ * Queries run on the loader's own threads, so what the request's thread-locals would have decided travels with
+ * each lookup: callers pinned to the primary for read-your-writes are batched apart from the others and fetched
+ * on the primary, and the statements a query took are credited to every request it answered. A pinned caller
+ * only shares a query that has not been sent yet, never one that may have started before its own write.
+ * <p>
+ * Each lookup holds a permit of the {@code lookup} bulkhead while it waits for its query, and is refused with 503
+ * when none is left. Only cache misses come here, so requests answered by the cache are never counted.
+ */
+@Profile("!reactive")
+@Component
+public class EmployeeViewLoader {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final Bulkheads bulkheads;
+
+    private final Lane replicaLane = new Lane(false);
+
+    private final Lane primaryLane = new Lane(true);
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("employee-lookup-flusher").daemon().factory());
+
+    private final ExecutorService fetchers = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter requests;
+
+    private final Counter coalesced;
+
+    private final DistributionSummary batchSizes;
+
+    @Autowired
+    public EmployeeViewLoader(EmployeeRepository employeeRepository, ObjectProvider<MeterRegistry> meterRegistry,
+                              ObjectProvider<Bulkheads> bulkheads,
+                              @Value("${employee.lookup.batch-window:2ms}") Duration window,
+                              @Value("${employee.lookup.max-batch-size:100}") int maxBatchSize) {
+        this(employeeRepository, meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+                bulkheads.getIfAvailable(() -> new Bulkheads(Map.of(), new SimpleMeterRegistry())), window, maxBatchSize);
+    }
+
+    EmployeeViewLoader(EmployeeRepository employeeRepository, MeterRegistry meters, Duration window, int maxBatchSize) {
+        this(employeeRepository, meters, new Bulkheads(Map.of(), meters), window, maxBatchSize);
+    }
+
+    EmployeeViewLoader(EmployeeRepository employeeRepository, MeterRegistry meters, Bulkheads bulkheads, Duration window,
+                       int maxBatchSize) {
+        this.employeeRepository = employeeRepository;
+        this.bulkheads = bulkheads;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.requests = Counter.builder("employee.lookup.requests")
+                .description("Id lookups that missed the cache")
+                .register(meters);
+        this.coalesced = Counter.builder("employee.lookup.coalesced")
+                .description("Id lookups answered by a query already in flight for the same id")
+                .register(meters);
+        this.batchSizes = DistributionSummary.builder("employee.lookup.batch.size")
+                .description("Distinct ids fetched per query")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meters);
+    }
+
+    public Optional<EmployeeView> load(Long id) {
+        requests.increment();
+        if (!bulkheads.tryAcquire(Bulkheads.LOOKUP)) {
+            throw new BulkheadFullException("Too many concurrent lookup requests");
+        }
+        try {
+            return load(id, ReplicaDataSource.isPinnedToPrimary() ? primaryLane : replicaLane);
+        } finally {
+            bulkheads.release(Bulkheads.LOOKUP);
+        }
+    }
+
+    private Optional<EmployeeView> load(Long id, Lane lane) {
+        Fetch created = new Fetch(id);
+        // a pinned caller's write committed before it got here; a query already sent may predate it
+        Fetch fetch = lane.inFlight.compute(id, (key, existing) ->
+                existing == null || (lane.primary && existing.dispatched) ? created : existing);
+        if (fetch == created) {
+            lane.enqueue(created);
+        } else {
+            coalesced.increment();
+        }
+        try {
+            return join(fetch.result);
+        } finally {
+            StatementCounter.add(fetch.statements);
+        }
+    }
+
+    private Map<Long, EmployeeView> query(List<Long> ids) {
+        // a lone id keeps the plain primary-key lookup
+        return (ids.size() == 1
+                ? employeeRepository.findViewById(ids.get(0)).stream().toList()
+                : employeeRepository.findViewsByIds(ids))
+                .stream().collect(Collectors.toMap(EmployeeView::id, Function.identity()));
+    }
+
+    private static Optional<EmployeeView> join(CompletableFuture<Optional<EmployeeView>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdown();
+        fetchers.shutdown();
+    }
+
+    /**
+     * Lookups that share a routing: only these are coalesced and batched with each other.
+     */
+    private final class Lane {
+
+        private final boolean primary;
+
+        private final Map<Long, Fetch> inFlight = new ConcurrentHashMap<>();
+
+        // guarded by this lane, together with flushScheduled
+        private List<Fetch> pending = new ArrayList<>();
+
+        private boolean flushScheduled;
+
+        Lane(boolean primary) {
+            this.primary = primary;
+        }
+
+        void enqueue(Fetch fetch) {
+            List<Fetch> full = null;
+            synchronized (this) {
+                pending.add(fetch);
+                if (pending.size() >= maxBatchSize) {
+                    full = take();
+                } else if (!flushScheduled) {
+                    flushScheduled = true;
+                    flusher.schedule(this::flushPending, windowNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            if (full != null) {
+                List<Fetch> batch = full;
+                fetchers.execute(() -> fetch(batch));
+            }
+        }
+
+        private void flushPending() {
+            List<Fetch> batch;
+            synchronized (this) {
+                batch = take();
+                flushScheduled = false;
+            }
+            if (!batch.isEmpty()) {
+                fetchers.execute(() -> fetch(batch));
+            }
+        }
+
+        // called holding the lane's lock, so a caller either joins before the batch is sent or sees it sent
+        private List<Fetch> take() {
+            List<Fetch> batch = pending;
+            pending = new ArrayList<>();
+            batch.forEach(fetch -> fetch.dispatched = true);
+            return batch;
+        }
+
+        private void fetch(List<Fetch> batch) {
+            batchSizes.record(batch.size());
+            List<Long> ids = batch.stream().map(fetch -> fetch.id).toList();
+            StatementCounter.reset();
+            try {
+                Map<Long, EmployeeView> found = primary ? ReplicaDataSource.onPrimary(() -> query(ids)) : query(ids);
+                // leave the in-flight map before completing, so later callers start a fresh query rather than reuse this one
+                for (Fetch fetch : batch) {
+                    inFlight.remove(fetch.id, fetch);
+                    fetch.statements = StatementCounter.current();
+                    fetch.result.complete(Optional.ofNullable(found.get(fetch.id)));
+                }
+            } catch (RuntimeException e) {
+                for (Fetch fetch : batch) {
+                    inFlight.remove(fetch.id, fetch);
+                    fetch.statements = StatementCounter.current();
+                    fetch.result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private static final class Fetch {
+
+        private final Long id;
+
+        private final CompletableFuture<Optional<EmployeeView>> result = new CompletableFuture<>();
+
+        private volatile boolean dispatched;
+
+        // written before the result completes, read after joining it
+        private int statements;
+
+        Fetch(Long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.olumide.springboottesting.service.implementation;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Counts newline bytes as a CSV upload is read and reports the running count every {@code interval} lines,
+ * so a long import shows progress while COPY is still consuming the request body.
+ */
+class LineCountingInputStream extends FilterInputStream {
+
+    private final long interval;
+
+    private final LongConsumer progress;
+
+    private long lines;
+
+    LineCountingInputStream(InputStream in, long interval, LongConsumer progress) {
+        super(in);
+        this.interval = interval;
+        this.progress = progress;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b == '\n') {
+            countLine();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        for (int i = offset; i < offset + read; i++) {
+            if (buffer[i] == '\n') {
+                countLine();
+            }
+        }
+        return read;
+    }
+
+    private void countLine() {
+        if (++lines % interval == 0) {
+            progress.accept(lines);
+        }
+    }
+}
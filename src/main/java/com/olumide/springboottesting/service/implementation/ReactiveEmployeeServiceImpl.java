@@ -0,0 +1,157 @@
+package com.olumide.springboottesting.service.implementation;
+
+import com.olumide.springboottesting.dto.EmployeeBatchResult;
+import com.olumide.springboottesting.dto.EmployeeDeleteRequest;
+import com.olumide.springboottesting.dto.EmployeeDeleteResult;
+import com.olumide.springboottesting.dto.EmployeePage;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.dto.PageCursor;
+import com.olumide.springboottesting.exception.DuplicateEmailException;
+import com.olumide.springboottesting.exception.ResourceNotFoundException;
+import com.olumide.springboottesting.exception.VersionConflictException;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.repository.ReactiveEmployeeRepository;
+import com.olumide.springboottesting.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.olumide.springboottesting.service.implementation.EmployeeServiceImpl.DELETE_CHUNK_SIZE;
+import static com.olumide.springboottesting.service.implementation.EmployeeServiceImpl.INSERT_CHUNK_SIZE;
+import static com.olumide.springboottesting.service.implementation.EmployeeServiceImpl.pageSize;
+import static com.olumide.springboottesting.service.implementation.EmployeeServiceImpl.toPage;
+
+@Profile("reactive")
+@Service
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private final ReactiveEmployeeRepository employeeRepository;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+        return employeeRepository.insertIfEmailAbsent(employee)
+                .switchIfEmpty(Mono.error(() -> new DuplicateEmailException(
+                        String.format("Employee already exist with given email %s", Employee.normalizeEmail(employee.getEmail())))));
+    }
+
+    @Override
+    public Mono<List<EmployeeBatchResult>> saveEmployees(List<Employee> employees) {
+        // same rules as EmployeeServiceImpl#saveEmployees, but each chunk commits on its own
+        EmployeeBatchResult[] results = new EmployeeBatchResult[employees.size()];
+        Map<String, Integer> insertIndexes = new HashMap<>();
+        List<Employee> toInsert = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            employee.setEmail(Employee.normalizeEmail(employee.getEmail()));
+            if (insertIndexes.putIfAbsent(employee.getEmail(), i) != null) {
+                results[i] = EmployeeBatchResult.duplicate(i, employee.getEmail());
+                continue;
+            }
+            toInsert.add(employee);
+        }
+        List<List<Employee>> chunks = new ArrayList<>();
+        for (int from = 0; from < toInsert.size(); from += INSERT_CHUNK_SIZE) {
+            chunks.add(toInsert.subList(from, Math.min(from + INSERT_CHUNK_SIZE, toInsert.size())));
+        }
+        return Flux.fromIterable(chunks)
+                .concatMap(employeeRepository::insertAllIfEmailAbsent)
+                .doOnNext(saved -> {
+                    int index = insertIndexes.get(saved.getEmail());
+                    results[index] = EmployeeBatchResult.created(index, saved.getId(), saved.getEmail());
+                })
+                .then(Mono.fromSupplier(() -> {
+                    for (int i = 0; i < results.length; i++) {
+                        if (results[i] == null) {
+                            results[i] = EmployeeBatchResult.duplicate(i, employees.get(i).getEmail());
+                        }
+                    }
+                    return List.of(results);
+                }));
+    }
+
+    @Override
+    public Flux<Employee> getAllEmployees() {
+        return employeeRepository.findAll();
+    }
+
+    @Override
+    public Mono<EmployeePage> getEmployeePage(String cursor, int size) {
+        int pageSize = pageSize(size);
+        return Mono.fromCallable(() -> PageCursor.decode(cursor))
+                .flatMap(afterId -> toPageOf(employeeRepository.findAfter(afterId, pageSize + 1), pageSize));
+    }
+
+    @Override
+    public Mono<EmployeePage> searchEmployees(EmployeeSearchCriteria criteria, String cursor, int size) {
+        int pageSize = pageSize(size);
+        return Mono.fromCallable(() -> PageCursor.decode(cursor))
+                .flatMap(afterId -> toPageOf(employeeRepository.search(criteria, afterId, pageSize + 1), pageSize));
+    }
+
+    private static Mono<EmployeePage> toPageOf(Flux<Employee> rows, int pageSize) {
+        return rows.map(EmployeeView::of).collectList().map(views -> toPage(views, pageSize));
+    }
+
+    @Override
+    public Mono<Employee> getById(Long id) {
+        return employeeRepository.findById(id);
+    }
+
+    @Override
+    public Mono<Employee> updateEmployee(Employee employee) {
+        return applyPatch(employee.getId(), EmployeePatch.of(employee));
+    }
+
+    @Override
+    public Mono<Employee> patchEmployee(Long id, EmployeePatch patch) {
+        if (patch.isEmpty()) {
+            return employeeRepository.findById(id)
+                    .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(String.format("Employee does not exist with id %d", id))));
+        }
+        return applyPatch(id, patch);
+    }
+
+    private Mono<Employee> applyPatch(Long id, EmployeePatch patch) {
+        return employeeRepository.updateFields(id, patch)
+                .onErrorMap(DuplicateKeyException.class, e -> new DuplicateEmailException(
+                        String.format("Employee already exist with given email %s", Employee.normalizeEmail(patch.email())), e))
+                .switchIfEmpty(Mono.defer(() -> employeeRepository.existsById(id)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new VersionConflictException(String.format("Employee %d was modified, expected version %d", id, patch.version()))
+                                : new ResourceNotFoundException(String.format("Employee does not exist with id %d", id))))));
+    }
+
+    @Override
+    public Mono<Void> deleteEmployee(Long id) {
+        return employeeRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new ResourceNotFoundException(String.format("Employee does not exist with id %d", id)))
+                        : Mono.empty());
+    }
+
+    @Override
+    public Mono<EmployeeDeleteResult> deleteEmployees(EmployeeDeleteRequest request) {
+        List<Long> ids = request.ids() == null ? List.of() : request.ids().stream().distinct().toList();
+        Mono<Long> byIds = Flux.range(0, Math.ceilDiv(ids.size(), DELETE_CHUNK_SIZE))
+                .concatMap(chunk -> employeeRepository.deleteByIds(
+                        ids.subList(chunk * DELETE_CHUNK_SIZE, Math.min((chunk + 1) * DELETE_CHUNK_SIZE, ids.size()))))
+                .reduce(0L, Long::sum);
+        Mono<Long> byDomain = request.emailDomain() == null || request.emailDomain().isBlank()
+                ? Mono.just(0L)
+                : employeeRepository.deleteByEmailDomain(Employee.normalizeEmail(request.emailDomain()), DELETE_CHUNK_SIZE);
+        return byIds.flatMap(deleted -> byDomain.map(byDomainDeleted -> new EmployeeDeleteResult(deleted + byDomainDeleted)));
+    }
+}
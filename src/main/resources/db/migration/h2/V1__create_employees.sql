@@ -0,0 +1,12 @@
+-- The employees table for the H2 slice tests; the PostgreSQL triggers, change tracking and indexes have no
+-- counterpart here, and their repository methods are only exercised against PostgreSQL.
+create sequence if not exists employees_seq start with 1 increment by 50;
+
+create table if not exists employees (
+    id         bigint       not null primary key,
+    first_name varchar(255) not null,
+    last_name  varchar(255) not null,
+    email      varchar(255) not null constraint uk_employees_email unique,
+    version    bigint       default 0 not null,
+    updated_at timestamp(6) with time zone
+);
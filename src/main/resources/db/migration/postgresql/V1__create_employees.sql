@@ -0,0 +1,36 @@
+-- The employees table and its id sequence. Also adopts a table created by Hibernate's ddl-auto from the original
+-- entity (identity id, no version column, no unique email key): spring.flyway.baseline-version=0 replays this
+-- migration over such a database, so every step below is a no-op on a table that already has the current shape.
+create sequence if not exists employees_seq start with 1 increment by 50;
+
+create table if not exists employees (
+    id         bigint       not null primary key,
+    first_name varchar(255) not null,
+    last_name  varchar(255) not null,
+    email      varchar(255) not null constraint uk_employees_email unique,
+    version    bigint       default 0 not null
+);
+
+-- baseline adoption: ids come from employees_seq now, not from the column's identity (or serial) default
+alter table employees alter column id drop identity if exists;
+
+alter table employees alter column id drop default;
+
+-- a constant default is stored in the catalog: existing rows read 0 without the table being rewritten
+alter table employees add column if not exists version bigint default 0 not null;
+
+-- emails are compared normalized (Employee.normalizeEmail); a pair differing only in case or blanks fails here,
+-- before the unique key could be added, and has to be resolved by hand
+update employees set email = lower(trim(email)) where email <> lower(trim(email));
+
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conname = 'uk_employees_email'
+                   and conrelid = 'employees'::regclass) then
+        alter table employees add constraint uk_employees_email unique (email);
+    end if;
+end;
+$$;
+
+-- move the sequence past the ids the identity column handed out
+select setval('employees_seq', coalesce(max(id), 0) + 1) from employees;
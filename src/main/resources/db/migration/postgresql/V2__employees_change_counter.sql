@@ -0,0 +1,22 @@
+-- Table-level change counter behind the ETag of GET /api/employees.
+-- Bumped once per writing statement, inside the writer's transaction, so readers only see the new value once the
+-- rows it covers are committed. The price is that concurrent writers queue on this one row until they commit.
+create table if not exists employees_change_counter (
+    id    boolean primary key default true check (id),
+    value bigint  not null
+);
+
+insert into employees_change_counter (id, value) values (true, 0) on conflict (id) do nothing;
+
+create or replace function bump_employees_change_counter() returns trigger language plpgsql as $$
+begin
+    update employees_change_counter set value = value + 1;
+    return null;
+end;
+$$;
+
+drop trigger if exists employees_change_counter on employees;
+
+create trigger employees_change_counter
+    after insert or update or delete or truncate on employees
+    for each statement execute function bump_employees_change_counter();
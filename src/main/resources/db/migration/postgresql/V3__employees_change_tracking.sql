@@ -0,0 +1,43 @@
+-- Change tracking behind GET /api/employees/changes.
+-- updated_at is stamped by the database on every insert and update; deletes leave a tombstone row behind so
+-- delta clients learn about them. Tombstones older than employee.changes.tombstone-retention are pruned.
+-- now() is stable, so existing rows get the migration's time as a stored default: no table rewrite, and the
+-- access exclusive lock is held only for the catalog change.
+alter table employees add column if not exists updated_at timestamptz not null default now();
+
+create table if not exists employee_tombstones (
+    id         bigint      primary key,
+    deleted_at timestamptz not null
+);
+
+create index if not exists idx_employee_tombstones_deleted_at on employee_tombstones (deleted_at, id);
+
+create or replace function touch_employees_updated_at() returns trigger language plpgsql as $$
+begin
+    new.updated_at := now();
+    return new;
+end;
+$$;
+
+drop trigger if exists employees_touch_updated_at on employees;
+
+create trigger employees_touch_updated_at
+    before update on employees
+    for each row execute function touch_employees_updated_at();
+
+-- statement-level with a transition table, so a bulk delete writes its tombstones in one insert
+create or replace function record_employee_tombstones() returns trigger language plpgsql as $$
+begin
+    insert into employee_tombstones (id, deleted_at)
+    select id, now() from removed_employees
+    on conflict (id) do update set deleted_at = excluded.deleted_at;
+    return null;
+end;
+$$;
+
+drop trigger if exists employees_record_tombstones on employees;
+
+create trigger employees_record_tombstones
+    after delete on employees
+    referencing old table as removed_employees
+    for each statement execute function record_employee_tombstones();
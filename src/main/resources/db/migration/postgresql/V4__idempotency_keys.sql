@@ -0,0 +1,12 @@
+-- Durable half of the Idempotency-Key store.
+-- A row with a null status is a claim held by a request still running; once it finishes the row keeps its
+-- response so retries are answered from here. Rows older than employee.idempotency.ttl are pruned.
+create table if not exists idempotency_keys (
+    idempotency_key text        primary key,
+    status          int,
+    content_type    text,
+    body            bytea,
+    created_at      timestamptz not null default now()
+);
+
+create index if not exists idx_idempotency_keys_created_at on idempotency_keys (created_at);
@@ -0,0 +1,5 @@
+-- Keyset index for GET /api/employees/changes.
+-- Indexes on employees are built concurrently: writes carry on during the build, which only waits for the
+-- transactions already running. Flyway runs this script outside a transaction, as concurrent builds require.
+-- A build that fails leaves an invalid index behind; drop it (drop index concurrently) before migrating again.
+create index concurrently if not exists idx_employees_updated_at on employees (updated_at, id);
@@ -0,0 +1,4 @@
+-- Secondary indexes backing GET /api/employees/search, built concurrently (see V5).
+create index concurrently if not exists idx_employees_last_name_prefix on employees (lower(last_name) text_pattern_ops, id);
+create index concurrently if not exists idx_employees_first_name_prefix on employees (lower(first_name) text_pattern_ops, id);
+create index concurrently if not exists idx_employees_email_domain on employees (split_part(email, '@', 2), id);
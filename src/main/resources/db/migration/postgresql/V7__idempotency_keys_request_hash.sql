@@ -0,0 +1,3 @@
+-- SHA-256 of the request body each Idempotency-Key first answered: a retry whose body hashes differently is
+-- refused instead of replayed. Null for keys recorded before this column, which are replayed as before.
+alter table idempotency_keys add column if not exists request_hash bytea;
@@ -0,0 +1,23 @@
+-- Spreads the change counter of V2 over per-connection slots, so concurrent writers stop queueing on one row.
+-- Each writing statement still bumps a counter inside its own transaction, so readers only see the new total once
+-- the rows it covers are committed; the ETag of GET /api/employees is the sum over all slots. A connection always
+-- bumps the same slot, and a pool opens its connections in quick succession, so their consecutive backend pids
+-- land on different slots: two transactions only wait for each other when their pids are a multiple of 128 apart.
+create table if not exists employees_change_counts (
+    slot  integer primary key,
+    value bigint  not null
+);
+
+insert into employees_change_counts (slot, value)
+select 0, value from employees_change_counter
+on conflict (slot) do nothing;
+
+create or replace function bump_employees_change_counter() returns trigger language plpgsql as $$
+begin
+    insert into employees_change_counts (slot, value) values (pg_backend_pid() % 128, 1)
+    on conflict (slot) do update set value = employees_change_counts.value + 1;
+    return null;
+end;
+$$;
+
+drop table if exists employees_change_counter;
@@ -0,0 +1,72 @@
+package com.olumide.springboottesting.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadInterceptorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final BulkheadInterceptor interceptor = new BulkheadInterceptor(new Bulkheads(Map.of("list", 1), meterRegistry));
+
+    @Test
+    public void givenBulkheadFull_whenAnotherRequestArrives_thenRefuseWith503UntilReleased() throws Exception {
+        //given
+        HandlerMethod list = new HandlerMethod(new Handlers(), Handlers.class.getMethod("list"));
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        assertThat(interceptor.preHandle(first, new MockHttpServletResponse(), list)).isTrue();
+        //when
+        MockHttpServletResponse refused = new MockHttpServletResponse();
+        boolean admitted = interceptor.preHandle(new MockHttpServletRequest(), refused, list);
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), list, null);
+        //then
+        assertThat(admitted).isFalse();
+        assertThat(refused.getStatus()).isEqualTo(503);
+        assertThat(refused.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(meterRegistry.counter("employee.bulkhead.rejected", "bulkhead", "list").count()).isEqualTo(1);
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), list)).isTrue();
+    }
+
+    @Test
+    public void givenHandlerOutsideBulkheads_whenManyConcurrentRequests_thenAdmitAll() throws Exception {
+        //given
+        HandlerMethod write = new HandlerMethod(new Handlers(), Handlers.class.getMethod("write"));
+        //when
+        //then
+        for (int i = 0; i < 5; i++) {
+            assertThat(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), write)).isTrue();
+        }
+    }
+
+    @Test
+    public void givenAsyncRedispatch_whenPreHandleAgain_thenKeepTheSamePermit() throws Exception {
+        //given
+        HandlerMethod list = new HandlerMethod(new Handlers(), Handlers.class.getMethod("list"));
+        MockHttpServletRequest streaming = new MockHttpServletRequest();
+        interceptor.preHandle(streaming, new MockHttpServletResponse(), list);
+        //when
+        boolean redispatched = interceptor.preHandle(streaming, new MockHttpServletResponse(), list);
+        //then
+        assertThat(redispatched).isTrue();
+        assertThat(meterRegistry.get("employee.bulkhead.active").gauge().value()).isEqualTo(1);
+    }
+
+    static class Handlers {
+
+        @Bulkhead("list")
+        public void list() {
+        }
+
+        public void write() {
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.olumide.springboottesting.config;
+
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.exception.BulkheadFullException;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.repository.EmployeeRepository;
+import com.olumide.springboottesting.service.EmployeeService;
+import com.olumide.springboottesting.service.implementation.EmployeeServiceImpl;
+import com.olumide.springboottesting.service.implementation.EmployeeViewLoader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(classes = {CacheConfig.class, EmployeeCacheInvalidator.class, EmployeeServiceImpl.class, EmployeeViewLoader.class,
+        CacheConfigTest.LookupBulkhead.class})
+class CacheConfigTest {
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE).clear();
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build();
+    }
+
+    @Test
+    public void givenCachedEmployee_whenGetByIdTwice_thenQueryRepositoryOnce(){
+        //given
+        given(employeeRepository.findViewById(1L)).willReturn(Optional.of(EmployeeView.of(employee)));
+        //when
+        employeeService.getById(1L);
+        Optional<EmployeeView> cached = employeeService.getById(1L);
+        //then
+        assertThat(cached).contains(EmployeeView.of(employee));
+        verify(employeeRepository, times(1)).findViewById(1L);
+    }
+
+    @Test
+    public void givenMissingEmployee_whenGetByIdTwice_thenCacheTheMiss(){
+        //given
+        given(employeeRepository.findViewById(2L)).willReturn(Optional.empty());
+        //when
+        employeeService.getById(2L);
+        Optional<EmployeeView> cached = employeeService.getById(2L);
+        //then
+        assertThat(cached).isEmpty();
+        verify(employeeRepository, times(1)).findViewById(2L);
+    }
+
+    @Test
+    public void givenCachedEmployee_whenDeleteEmployee_thenEvictEntry(){
+        //given
+        given(employeeRepository.findViewById(1L)).willReturn(Optional.of(EmployeeView.of(employee)));
+        given(employeeRepository.deleteRowById(1L)).willReturn(1);
+        employeeService.getById(1L);
+        //when
+        employeeService.deleteEmployee(1L);
+        employeeService.getById(1L);
+        //then
+        verify(employeeRepository, times(2)).findViewById(1L);
+    }
+
+    @Test
+    public void givenCachedMiss_whenSaveEmployee_thenEvictMiss(){
+        //given
+        given(employeeRepository.findViewById(1L)).willReturn(Optional.empty(), Optional.of(EmployeeView.of(employee)));
+        given(employeeRepository.insertIfEmailAbsent(employee)).willReturn(Optional.of(employee));
+        employeeService.getById(1L);
+        //when
+        employeeService.saveEmployee(employee);
+        Optional<EmployeeView> cached = employeeService.getById(1L);
+        //then
+        assertThat(cached).contains(EmployeeView.of(employee));
+    }
+
+    @Test
+    public void givenLookupOlderThanCommittedUpdate_whenGetById_thenDoNotCacheIt(){
+        //given
+        // an id no other test writes: the cache remembers writes across tests
+        Employee original = Employee.builder()
+                .id(3L)
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .version(0L)
+                .build();
+        Employee updated = Employee.builder()
+                .id(3L)
+                .firstName("tunde")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .version(1L)
+                .build();
+        given(employeeRepository.updateFields(eq(3L), any())).willReturn(Optional.of(updated));
+        // the first lookup is answered by a replica that has not replayed the update yet
+        given(employeeRepository.findViewById(3L)).willReturn(Optional.of(EmployeeView.of(original)),
+                Optional.of(EmployeeView.of(updated)));
+        employeeService.updateEmployee(updated);
+        //when
+        Optional<EmployeeView> stale = employeeService.getById(3L);
+        employeeService.getById(3L);
+        Optional<EmployeeView> cached = employeeService.getById(3L);
+        //then
+        assertThat(stale).contains(EmployeeView.of(original));
+        assertThat(cached).contains(EmployeeView.of(updated));
+        verify(employeeRepository, times(2)).findViewById(3L);
+    }
+
+    @Test
+    public void givenLookupBulkheadFull_whenGetById_thenServeCacheHitsAndRefuseMisses(){
+        //given
+        // ids no other test writes: the cache remembers writes across tests
+        EmployeeView view = new EmployeeView(5L, "olumide", "dele-johnson", "olumide@gmail.com", 0L);
+        given(employeeRepository.findViewById(5L)).willReturn(Optional.of(view));
+        employeeService.getById(5L);
+        assertThat(bulkheads.tryAcquire(Bulkheads.LOOKUP)).isTrue();
+        try {
+            //when
+            Optional<EmployeeView> cached = employeeService.getById(5L);
+            //then
+            assertThat(cached).contains(view);
+            assertThatThrownBy(() -> employeeService.getById(6L)).isInstanceOf(BulkheadFullException.class);
+            verify(employeeRepository, times(1)).findViewById(5L);
+        } finally {
+            bulkheads.release(Bulkheads.LOOKUP);
+        }
+    }
+
+    @Configuration
+    static class LookupBulkhead {
+
+        @Bean
+        Bulkheads bulkheads() {
+            return new Bulkheads(Map.of(Bulkheads.LOOKUP, 1), new SimpleMeterRegistry());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.olumide.springboottesting.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    private final ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 1000, clock::get);
+
+    @Test
+    public void givenFullBucket_whenBurstSpent_thenRefuseUntilNextToken(){
+        //given
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("key:a")).isZero();
+        }
+        //when
+        long wait = limiter.tryAcquire("key:a");
+        //then
+        assertThat(wait).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        clock.addAndGet(wait);
+        assertThat(limiter.tryAcquire("key:a")).isZero();
+    }
+
+    @Test
+    public void givenOneClientThrottled_whenAnotherClientCalls_thenServeIt(){
+        //given
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("ip:10.0.0.1");
+        }
+        //when
+        long throttled = limiter.tryAcquire("ip:10.0.0.1");
+        long other = limiter.tryAcquire("ip:10.0.0.2");
+        //then
+        assertThat(throttled).isPositive();
+        assertThat(other).isZero();
+    }
+
+    @Test
+    public void givenIdleClient_whenBurstWindowPassed_thenBucketIsFullAgain(){
+        //given
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("key:a");
+        }
+        //when
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+        //then
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("key:a")).isZero();
+        }
+        assertThat(limiter.tryAcquire("key:a")).isPositive();
+    }
+}
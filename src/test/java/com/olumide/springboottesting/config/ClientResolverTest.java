@@ -0,0 +1,68 @@
+package com.olumide.springboottesting.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientResolverTest {
+
+    @Test
+    public void givenAuthenticatedRequest_whenResolve_thenKeyOnPrincipal(){
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setUserPrincipal(() -> "olumide");
+        request.addHeader("X-Forwarded-For", "10.0.0.7");
+        //when
+        String client = new ClientResolver("X-Forwarded-For", Map.of()).resolve(request);
+        //then
+        assertThat(client).isEqualTo("user:olumide");
+    }
+
+    @Test
+    public void givenTrustedForwardedHeader_whenResolve_thenKeyOnAddressAddedByProxy(){
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("192.168.1.1");
+        // the first entry is whatever the client sent; the proxy appended the last one
+        request.addHeader("X-Forwarded-For", "1.2.3.4, 10.0.0.7");
+        //when
+        String client = new ClientResolver("X-Forwarded-For", Map.of()).resolve(request);
+        //then
+        assertThat(client).isEqualTo("ip:10.0.0.7");
+    }
+
+    @Test
+    public void givenNoForwardedHeaderConfiguredAndUnknownApiKey_whenResolve_thenIgnoreClientSuppliedHeaders(){
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+        request.addHeader("X-Forwarded-For", "1.2.3.4");
+        request.addHeader("X-API-Key", "made-up");
+        //when
+        String client = new ClientResolver("", Map.of("reporting", "issued-key")).resolve(request);
+        //then
+        assertThat(client).isEqualTo("ip:10.0.0.7");
+    }
+
+    @Test
+    public void givenIssuedApiKey_whenResolve_thenKeyOnItsClientWhereverItConnectsFrom(){
+        //given
+        ClientResolver resolver = new ClientResolver("", Map.of("reporting", "issued-key"));
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        first.setRemoteAddr("10.0.0.7");
+        first.addHeader("X-API-Key", "issued-key");
+        MockHttpServletRequest second = new MockHttpServletRequest();
+        second.setRemoteAddr("10.0.0.8");
+        second.setUserPrincipal(() -> "olumide");
+        second.addHeader("X-API-Key", "issued-key");
+        //when
+        String firstClient = resolver.resolve(first);
+        String secondClient = resolver.resolve(second);
+        //then
+        assertThat(firstClient).isEqualTo("key:reporting");
+        assertThat(secondClient).isEqualTo("key:reporting");
+    }
+}
@@ -0,0 +1,232 @@
+package com.olumide.springboottesting.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olumide.springboottesting.controller.EmployeeController;
+import com.olumide.springboottesting.dto.IdempotentResponse;
+import com.olumide.springboottesting.exception.RestExceptionHandler;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.repository.IdempotencyKeyRepository;
+import com.olumide.springboottesting.service.EmployeeChangeFeed;
+import com.olumide.springboottesting.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class IdempotencyFilterTest {
+
+    private final EmployeeService employeeService = mock(EmployeeService.class);
+
+    private final IdempotencyKeyRepository keys = mock(IdempotencyKeyRepository.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MockMvc mockMvc;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        mockMvc = mockMvc(Duration.ofSeconds(5));
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build();
+        given(keys.claim(anyString(), any(), any())).willReturn(true);
+    }
+
+    @Test
+    public void givenCompletedRequest_whenRetriedWithSameKey_thenReplayWithoutCallingService() throws Exception {
+        //given
+        given(employeeService.saveEmployee(any(Employee.class))).willReturn(employee);
+        MockHttpServletResponse first = create("key-1");
+        //when
+        MockHttpServletResponse retry = create("key-1");
+        //then
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+        verify(keys, times(1)).saveResponse(anyString(), any());
+    }
+
+    @Test
+    public void givenRequestInFlight_whenDuplicateArrives_thenWaitForFirstResponse() throws Exception {
+        //given
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return employee;
+        });
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> createUnchecked("key-2"));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        //when
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> createUnchecked("key-2"));
+        Thread.sleep(50);
+        release.countDown();
+        //then
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getContentAsString())
+                .isEqualTo(first.get(5, TimeUnit.SECONDS).getContentAsString());
+        assertThat(duplicate.get().getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    public void givenRequestInFlightPastWaitTimeout_whenDuplicateArrives_thenRefuseWith409() throws Exception {
+        //given
+        mockMvc = mockMvc(Duration.ofMillis(100));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return employee;
+        });
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> createUnchecked("key-7"));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            //when
+            MockHttpServletResponse duplicate = create("key-7");
+            //then
+            assertThat(duplicate.getStatus()).isEqualTo(409);
+            assertThat(duplicate.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo(IdempotencyFilter.RETRY_AFTER_SECONDS);
+        } finally {
+            release.countDown();
+        }
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    public void givenResponseRecordedByAnotherInstance_whenRetried_thenReplayFromStore() throws Exception {
+        //given
+        given(keys.claim(anyString(), any(), any())).willReturn(false);
+        given(keys.findResponse(anyString())).willReturn(Optional.of(new IdempotentResponse(201,
+                MediaType.APPLICATION_JSON_VALUE, "{\"id\":1}".getBytes(StandardCharsets.UTF_8), null)));
+        //when
+        MockHttpServletResponse retry = create("key-3");
+        //then
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo("{\"id\":1}");
+        verify(employeeService, never()).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    public void givenServerError_whenRetried_thenReleaseKeyAndRunAgain() throws Exception {
+        //given
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new CannotCreateTransactionException("pool exhausted"))
+                .willReturn(employee);
+        //when
+        MockHttpServletResponse first = create("key-4");
+        MockHttpServletResponse retry = create("key-4");
+        //then
+        assertThat(first.getStatus()).isEqualTo(503);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        verify(keys, times(1)).release(anyString());
+        verify(employeeService, times(2)).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    public void givenKeyUsedByAnotherClient_whenSameKeySent_thenRunRequestForThisClient() throws Exception {
+        //given
+        given(employeeService.saveEmployee(any(Employee.class))).willReturn(employee);
+        create("key-5", "10.0.0.7", employee);
+        //when
+        MockHttpServletResponse other = create("key-5", "10.0.0.8", employee);
+        //then
+        assertThat(other.getStatus()).isEqualTo(201);
+        assertThat(other.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        verify(employeeService, times(2)).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    public void givenCompletedRequest_whenRetriedWithAnotherBody_thenRefuseWith422() throws Exception {
+        //given
+        given(employeeService.saveEmployee(any(Employee.class))).willReturn(employee);
+        create("key-6");
+        Employee changed = Employee.builder()
+                .firstName("tunde")
+                .lastName("bakare")
+                .email("tunde@gmail.com")
+                .build();
+        //when
+        MockHttpServletResponse retry = create("key-6", "127.0.0.1", changed);
+        //then
+        assertThat(retry.getStatus()).isEqualTo(422);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    public void givenFilters_whenOrdered_thenClaimKeysOnlyAfterRateLimit(){
+        //given
+        IdempotencyFilter filter = new IdempotencyFilter(keys, new ClientResolver("", Map.of()), Duration.ofHours(1), Duration.ofMinutes(1),
+                Duration.ofSeconds(5), 100);
+        //when
+        int order = filter.getOrder();
+        //then
+        assertThat(order).isGreaterThan(RateLimitFilter.ORDER);
+    }
+
+    private MockMvc mockMvc(Duration waitTimeout) {
+        IdempotencyFilter filter = new IdempotencyFilter(keys, new ClientResolver("", Map.of()), Duration.ofHours(1), Duration.ofMinutes(1),
+                waitTimeout, 100);
+        return MockMvcBuilders.standaloneSetup(new EmployeeController(employeeService, objectMapper, mock(EmployeeChangeFeed.class)))
+                .setControllerAdvice(new RestExceptionHandler())
+                .addFilters(filter)
+                .build();
+    }
+
+    private MockHttpServletResponse create(String key) throws Exception {
+        return create(key, "127.0.0.1", employee);
+    }
+
+    private MockHttpServletResponse create(String key, String remoteAddr, Employee body) throws Exception {
+        return mockMvc.perform(post("/api/employees")
+                        .with(request -> {
+                            request.setRemoteAddr(remoteAddr);
+                            return request;
+                        })
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andReturn().getResponse();
+    }
+
+    private MockHttpServletResponse createUnchecked(String key) {
+        try {
+            return create(key);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
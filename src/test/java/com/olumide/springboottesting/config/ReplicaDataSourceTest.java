@@ -0,0 +1,147 @@
+package com.olumide.springboottesting.config;
+
+import jakarta.servlet.http.Cookie;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaDataSourceTest {
+
+    private DataSource primary;
+
+    private DataSource replica0;
+
+    private DataSource replica1;
+
+    private ReplicaDataSource replicaDataSource;
+
+    @BeforeEach
+    void setup() {
+        primary = database("primary");
+        replica0 = database("replica0");
+        replica1 = database("replica1");
+        replicaDataSource = new ReplicaDataSource(primary, List.of(replica0, replica1), Duration.ofSeconds(5),
+                "select seconds from replica_lag");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaDataSource.unpin();
+        for (DataSource dataSource : List.of(primary, replica0, replica1)) {
+            new JdbcTemplate(dataSource).execute("drop all objects");
+        }
+    }
+
+    @Test
+    public void givenHealthyReplicas_whenGetConnection_thenRoundRobinOverReplicas() throws SQLException {
+        //given
+        replicaDataSource.checkHealth();
+
+        //when
+        List<String> served = List.of(servedBy(replicaDataSource), servedBy(replicaDataSource), servedBy(replicaDataSource));
+
+        //then
+        assertThat(served).containsExactly("replica0", "replica1", "replica0");
+    }
+
+    @Test
+    public void givenReplicaBeyondMaxLag_whenHealthChecked_thenTakeItOutOfRotation() throws SQLException {
+        //given
+        new JdbcTemplate(replica0).update("update replica_lag set seconds = 30");
+
+        //when
+        replicaDataSource.checkHealth();
+
+        //then
+        assertThat(replicaDataSource.healthyReplicas()).isEqualTo(1);
+        assertThat(List.of(servedBy(replicaDataSource), servedBy(replicaDataSource))).containsOnly("replica1");
+    }
+
+    @Test
+    public void givenNoReplicaChecked_whenGetConnection_thenFallBackToPrimary() throws SQLException {
+        //when
+        String served = servedBy(replicaDataSource);
+
+        //then
+        assertThat(served).isEqualTo("primary");
+    }
+
+    @Test
+    public void givenLazyProxy_whenReadOnlyAndReadWriteTransactions_thenRouteByReadOnlyFlag() {
+        //given
+        replicaDataSource.checkHealth();
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(replicaDataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(routing);
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(new DataSourceTransactionManager(routing));
+
+        //when
+        String read = readOnly.execute(status -> jdbcTemplate.queryForObject("select name from whoami", String.class));
+        String write = readWrite.execute(status -> jdbcTemplate.queryForObject("select name from whoami", String.class));
+
+        //then
+        assertThat(read).startsWith("replica");
+        assertThat(write).isEqualTo("primary");
+    }
+
+    @Test
+    public void givenRecentWriteCookie_whenReadRequest_thenPinToPrimaryUntilCompletion() throws Exception {
+        //given
+        replicaDataSource.checkHealth();
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofSeconds(5));
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        interceptor.preHandle(new MockHttpServletRequest("PUT", "/api/employees/1"), writeResponse, null);
+        interceptor.afterCompletion(null, null, null, null);
+        Cookie cookie = writeResponse.getCookie(ReadYourWritesInterceptor.COOKIE_NAME);
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/employees/1");
+        read.setCookies(cookie);
+
+        //when
+        interceptor.preHandle(read, new MockHttpServletResponse(), null);
+        String pinned = servedBy(replicaDataSource);
+        interceptor.afterCompletion(read, null, null, null);
+        String released = servedBy(replicaDataSource);
+
+        //then
+        assertThat(cookie).isNotNull();
+        assertThat(pinned).isEqualTo("primary");
+        assertThat(released).startsWith("replica");
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table whoami (name varchar(20))");
+        jdbcTemplate.update("insert into whoami values (?)", name);
+        jdbcTemplate.execute("create table replica_lag (seconds double precision)");
+        jdbcTemplate.update("insert into replica_lag values (0)");
+        return dataSource;
+    }
+
+    private static String servedBy(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet rs = connection.createStatement().executeQuery("select name from whoami")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
@@ -1,7 +1,27 @@
 package com.olumide.springboottesting.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.olumide.springboottesting.dto.EmployeeBatchResult;
+import com.olumide.springboottesting.dto.EmployeeChanges;
+import com.olumide.springboottesting.dto.EmployeeDeleteRequest;
+import com.olumide.springboottesting.dto.EmployeeDeleteResult;
+import com.olumide.springboottesting.dto.EmployeeImportError;
+import com.olumide.springboottesting.dto.EmployeeImportResult;
+import com.olumide.springboottesting.dto.EmployeeLookupResult;
+import com.olumide.springboottesting.dto.EmployeeMultiGetRequest;
+import com.olumide.springboottesting.dto.EmployeePage;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.exception.ChangeTokenExpiredException;
+import com.olumide.springboottesting.exception.DuplicateEmailException;
+import com.olumide.springboottesting.exception.ResourceNotFoundException;
+import com.olumide.springboottesting.exception.TooManyIdsException;
+import com.olumide.springboottesting.exception.VersionConflictException;
 import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.service.EmployeeChangeFeed;
 import com.olumide.springboottesting.service.EmployeeService;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Test;
@@ -9,22 +29,40 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
@@ -36,6 +74,8 @@ public class EmployeeControllerTest {
 
     @MockBean
     private EmployeeService employeeService;
+    @MockBean
+    private EmployeeChangeFeed changeFeed;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -60,6 +100,73 @@ public class EmployeeControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.lastName", is(employee.getLastName())));
     }
 
+    @Test
+    public void givenExistingEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+            //given
+        Employee employee = Employee.builder()
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class))).willThrow(new DuplicateEmailException("duplicate"));
+            //when
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+            //then
+        response.andDo(print()).andExpect(status().isConflict());
+    }
+
+    @Test
+    public void givenEmployeeList_whenCreateEmployees_thenReturnPerRowResults() throws Exception {
+            //given
+        Employee employee = Employee.builder()
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build();
+        given(employeeService.saveEmployees(any())).willReturn(List.of(
+                EmployeeBatchResult.created(0, 1L, "olumide@gmail.com"),
+                EmployeeBatchResult.duplicate(1, "olumide@gmail.com")));
+            //when
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee, employee))));
+            //then
+        response.andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].status", is("DUPLICATE_EMAIL")));
+    }
+
+    @Test
+    public void givenIds_whenGetEmployeesByIds_thenReturnResultsInRequestOrder() throws Exception{
+            //given
+        given(employeeService.getByIds(List.of(2L, 1L))).willReturn(List.of(
+                EmployeeLookupResult.notFound(2L),
+                EmployeeLookupResult.found(new EmployeeView(1L, "olumide", "dele-johnson", "olumide@gmail.com", 0L))));
+            //when
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", "2,1"));
+            //then
+        response.andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[0].status", is("NOT_FOUND")))
+                .andExpect(jsonPath("$[1].status", is("FOUND")))
+                .andExpect(jsonPath("$[1].employee.email", is("olumide@gmail.com")));
+    }
+
+    @Test
+    public void givenTooManyIds_whenMultiGet_thenReturnBadRequest() throws Exception{
+            //given
+        given(employeeService.getByIds(List.of(1L, 2L))).willThrow(new TooManyIdsException("At most 1 ids can be fetched at once, got 2"));
+            //when
+        ResultActions response = mockMvc.perform(post("/api/employees/_mget")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new EmployeeMultiGetRequest(List.of(1L, 2L)))));
+            //then
+        response.andDo(print()).andExpect(status().isBadRequest());
+    }
+
     @Test
     public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeeList() throws Exception{
             //given
@@ -76,7 +183,7 @@ public class EmployeeControllerTest {
                 .lastName("dele-johnson")
                 .email("omotara@gmail.com")
                 .build());
-        given(employeeService.getAllEmployees()).willReturn(list);
+        given(employeeService.getAllEmployees()).willReturn(list.stream().map(EmployeeView::of).toList());
             //when
           ResultActions response = mockMvc.perform(get("/api/employees"));
             //then
@@ -84,6 +191,122 @@ public class EmployeeControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.size()", is(list.size())));
     }
 
+    @Test
+    public void givenCursor_whenGetEmployeePage_thenReturnPageWithNextCursor() throws Exception{
+            //given
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build();
+        given(employeeService.getEmployeePage("abc", 1)).willReturn(new EmployeePage(List.of(EmployeeView.of(employee)), "next"));
+            //when
+        ResultActions response = mockMvc.perform(get("/api/employees/page")
+                .param("cursor", "abc")
+                .param("size", "1"));
+            //then
+        response.andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+    }
+
+    @Test
+    public void givenSearchFilters_whenSearchEmployees_thenBindCriteria() throws Exception{
+            //given
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build();
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria("dele", null, "gmail.com", 1L, null);
+        given(employeeService.searchEmployees(criteria, null, 100)).willReturn(new EmployeePage(List.of(EmployeeView.of(employee)), null));
+            //when
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("lastName", "dele")
+                .param("emailDomain", "gmail.com")
+                .param("minId", "1"));
+            //then
+        response.andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.items[0].email", is("olumide@gmail.com")));
+    }
+
+    @Test
+    public void givenEmployees_whenStreamAsNdjson_thenWriteOneEmployeePerLine() throws Exception{
+            //given
+        willAnswer(i -> {
+            Consumer<Employee> consumer = i.getArgument(0);
+            consumer.accept(Employee.builder().id(1L).firstName("olumide").lastName("dele-johnson").email("olumide@gmail.com").build());
+            consumer.accept(Employee.builder().id(2L).firstName("omotara").lastName("dele-johnson").email("omotara@gmail.com").build());
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+            //when
+        ResultActions response = mockMvc.perform(get("/api/employees").accept("application/x-ndjson"));
+            //then
+        mockMvc.perform(asyncDispatch(response.andExpect(request().asyncStarted()).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(content().string(matchesPattern("\\{\"id\":1,.*\"email\":\"olumide@gmail.com\".*}\n\\{\"id\":2,.*\"email\":\"omotara@gmail.com\".*}")));
+    }
+
+    @Test
+    public void givenEmployees_whenStreamAsDelimitedCbor_thenFrameEachRecordWithItsLength() throws Exception{
+            //given
+        willAnswer(i -> {
+            Consumer<Employee> consumer = i.getArgument(0);
+            consumer.accept(Employee.builder().id(1L).firstName("olumide").lastName("dele-johnson").email("olumide@gmail.com").build());
+            consumer.accept(Employee.builder().id(2L).firstName("omotara").lastName("dele-johnson").email("omotara@gmail.com").build());
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+            //when
+        ResultActions response = mockMvc.perform(get("/api/employees").accept("application/x-cbor-delimited"));
+        byte[] body = mockMvc.perform(asyncDispatch(response.andExpect(request().asyncStarted()).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-cbor-delimited"))
+                .andReturn().getResponse().getContentAsByteArray();
+            //then
+        CBORMapper cborMapper = new CBORMapper();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        List<String> emails = new ArrayList<>();
+        while (in.available() > 0) {
+            byte[] record = new byte[in.readInt()];
+            in.readFully(record);
+            emails.add(cborMapper.readValue(record, Employee.class).getEmail());
+        }
+        assertThat(emails).containsExactly("olumide@gmail.com", "omotara@gmail.com");
+    }
+
+    @Test
+    public void givenCborAccept_whenGetEmployeeById_thenReturnCborDocument() throws Exception{
+            //given
+        long employeeId = 1L;
+        given(employeeService.getById(employeeId)).willReturn(Optional.of(new EmployeeView(1L, "olumide", "dele-johnson", "olumide@gmail.com", 3L)));
+            //when
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId).accept("application/cbor"));
+            //then
+        byte[] body = response.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new CBORMapper().readValue(body, EmployeeView.class))
+                .isEqualTo(new EmployeeView(1L, "olumide", "dele-johnson", "olumide@gmail.com", 3L));
+    }
+
+    @Test
+    public void givenSmileAccept_whenGetAllEmployees_thenReturnSmileList() throws Exception{
+            //given
+        given(employeeService.getAllEmployees()).willReturn(List.of(
+                new EmployeeView(1L, "olumide", "dele-johnson", "olumide@gmail.com", 0L),
+                new EmployeeView(2L, "omotara", "dele-johnson", "omotara@gmail.com", 0L)));
+            //when
+        ResultActions response = mockMvc.perform(get("/api/employees").accept("application/x-jackson-smile"));
+            //then
+        byte[] body = response.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new SmileMapper().readValue(body, EmployeeView[].class)).extracting(EmployeeView::id).containsExactly(1L, 2L);
+    }
+
     @Test
     public void givenEmployeeId_whenGetEmployeeId_thenReturnEmployeeObject() throws Exception{
             //given
@@ -94,7 +317,7 @@ public class EmployeeControllerTest {
                   .lastName("dele-johnson")
                   .email("olumide@gmail.com")
                   .build();
-          given(employeeService.getById(employeeId)).willReturn(Optional.of(employee));
+          given(employeeService.getById(employeeId)).willReturn(Optional.of(EmployeeView.of(employee)));
             //when
            ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
             //then
@@ -122,6 +345,58 @@ public class EmployeeControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    public void givenExhaustedConnectionPool_whenGetEmployeeId_thenReturnServiceUnavailable() throws Exception{
+        //given
+        long employeeId = 1L;
+        given(employeeService.getById(employeeId)).willThrow(new CannotCreateTransactionException("pool exhausted"));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
+        //then
+        response.andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andDo(print());
+    }
+
+    @Test
+    public void givenMatchingListETag_whenGetAllEmployees_thenReturnNotModifiedWithoutQuery() throws Exception{
+            //given
+        given(employeeService.getChangeCount()).willReturn(42L);
+            //when
+        ResultActions response = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, "W/\"list-42\""));
+            //then
+        response.andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"list-42\""))
+                .andExpect(content().string(""));
+        then(employeeService).should(never()).getAllEmployees();
+    }
+
+    @Test
+    public void givenStaleListETag_whenGetAllEmployees_thenReturnListWithCurrentETag() throws Exception{
+            //given
+        given(employeeService.getChangeCount()).willReturn(43L);
+        given(employeeService.getAllEmployees()).willReturn(List.of(new EmployeeView(1L, "olumide", "dele-johnson", "olumide@gmail.com", 0L)));
+            //when
+        ResultActions response = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, "W/\"list-42\""));
+            //then
+        response.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"list-43\""))
+                .andExpect(jsonPath("$.size()", is(1)));
+    }
+
+    @Test
+    public void givenMatchingVersionETag_whenGetEmployeeById_thenReturnNotModified() throws Exception{
+            //given
+        long employeeId = 1L;
+        given(employeeService.getById(employeeId)).willReturn(Optional.of(new EmployeeView(1L, "olumide", "dele-johnson", "olumide@gmail.com", 3L)));
+            //when
+        ResultActions first = mockMvc.perform(get("/api/employees/{id}", employeeId));
+        ResultActions second = mockMvc.perform(get("/api/employees/{id}", employeeId).header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+            //then
+        first.andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        second.andExpect(status().isNotModified()).andExpect(content().string(""));
+    }
+
     @Test
     public void givenEmployeeId_whenUpdateEmployee_thenReturnUpdatedEmployee() throws Exception{
             //given
@@ -138,7 +413,7 @@ public class EmployeeControllerTest {
                 .lastName("dele-johnson")
                 .email("omotara@gmail.com")
                 .build();
-        given(employeeService.getById(employeeId)).willReturn(Optional.of(employee));
+        given(employeeService.getById(employeeId)).willReturn(Optional.of(EmployeeView.of(employee)));
         given(employeeService.updateEmployee(any(Employee.class))).willAnswer(i -> i.getArgument(0));
             //when
         ResultActions response = mockMvc.perform(put("/api/employees/{id}",employeeId)
@@ -167,8 +442,7 @@ public class EmployeeControllerTest {
                 .lastName("dele-johnson")
                 .email("omotara@gmail.com")
                 .build();
-        given(employeeService.getById(employeeId)).willReturn(Optional.empty());
-        given(employeeService.updateEmployee(any(Employee.class))).willAnswer(i -> i.getArgument(0));
+        given(employeeService.updateEmployee(any(Employee.class))).willThrow(new ResourceNotFoundException("missing"));
         //when
         ResultActions response = mockMvc.perform(put("/api/employees/{id}",employeeId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -178,6 +452,109 @@ public class EmployeeControllerTest {
 
     }
 
+    @Test
+    public void givenPartialFields_whenPatchEmployee_thenReturnUpdatedEmployee() throws Exception{
+            //given
+        long employeeId = 1L;
+        EmployeePatch patch = new EmployeePatch("omotara", null, null, 0L);
+        Employee patchedEmployee = Employee.builder()
+                .id(1L)
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .version(1L)
+                .build();
+        given(employeeService.patchEmployee(employeeId, patch)).willReturn(patchedEmployee);
+            //when
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}",employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+            //then
+        response.andExpect(status().isOk()).andDo(print())
+                .andExpect(jsonPath("$.firstName", is("omotara")))
+                .andExpect(jsonPath("$.version", is(1)));
+    }
+
+    @Test
+    public void givenStaleVersion_whenPatchEmployee_thenReturnConflict() throws Exception{
+            //given
+        long employeeId = 1L;
+        EmployeePatch patch = new EmployeePatch("omotara", null, null, 0L);
+        given(employeeService.patchEmployee(employeeId, patch)).willThrow(new VersionConflictException("stale"));
+            //when
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}",employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+            //then
+        response.andExpect(status().isConflict()).andDo(print());
+    }
+
+    @Test
+    public void givenIfMatch_whenUpdateEmployee_thenUpdateAgainstHeaderVersion() throws Exception{
+            //given
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email("omotara@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(any(Employee.class))).willAnswer(i -> {
+            Employee updated = i.getArgument(0);
+            updated.setVersion(updated.getVersion() + 1);
+            return updated;
+        });
+            //when
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+            //then
+        response.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version", is(4)));
+    }
+
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception{
+            //given
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email("omotara@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(any(Employee.class))).willThrow(new VersionConflictException("stale"));
+            //when
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+            //then
+        response.andExpect(status().isPreconditionFailed()).andDo(print());
+    }
+
+    @Test
+    public void givenStaleIfMatch_whenDeleteEmployee_thenReturnPreconditionFailed() throws Exception {
+            //given
+        long employeeId = 1L;
+        willThrow(new VersionConflictException("stale")).given(employeeService).deleteEmployee(employeeId, 3L);
+            //when
+        ResultActions resultActions = mockMvc.perform(delete("/api/employees/{id}", employeeId).header(HttpHeaders.IF_MATCH, "\"3\""));
+            //then
+        resultActions.andExpect(status().isPreconditionFailed()).andDo(print());
+    }
+
+    @Test
+    public void givenWeakIfMatch_whenDeleteEmployee_thenReturnPreconditionFailedWithoutDeleting() throws Exception {
+            //given
+        long employeeId = 1L;
+            //when
+        ResultActions resultActions = mockMvc.perform(delete("/api/employees/{id}", employeeId).header(HttpHeaders.IF_MATCH, "W/\"3\""));
+            //then
+        resultActions.andExpect(status().isPreconditionFailed());
+        then(employeeService).shouldHaveNoInteractions();
+    }
+
     @Test
     public void givenEmployeeIId_whenDeleteEmployee_thenReturnSuccessfulMessage() throws Exception {
             //given
@@ -188,4 +565,104 @@ public class EmployeeControllerTest {
             //then
         resultActions.andExpect(status().isOk()).andDo(print());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturnNotFound() throws Exception {
+            //given
+        long employeeId = 1L;
+        willThrow(new ResourceNotFoundException("missing")).given(employeeService).deleteEmployee(employeeId);
+            //when
+        ResultActions resultActions = mockMvc.perform(delete("/api/employees/{id}",employeeId));
+            //then
+        resultActions.andExpect(status().isNotFound()).andDo(print());
+    }
+
+    @Test
+    public void givenIdList_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+            //given
+        EmployeeDeleteRequest request = new EmployeeDeleteRequest(List.of(1L, 2L), null);
+        given(employeeService.deleteEmployees(request)).willReturn(new EmployeeDeleteResult(2));
+            //when
+        ResultActions resultActions = mockMvc.perform(delete("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+            //then
+        resultActions.andExpect(status().isOk()).andDo(print())
+                .andExpect(jsonPath("$.deleted", is(2)));
+    }
+
+    @Test
+    public void givenLastEventId_whenStreamChanges_thenSubscribeFromThatSequence() throws Exception {
+            //given
+        given(changeFeed.subscribe("k3x9:41")).willReturn(new SseEmitter());
+            //when
+        ResultActions resultActions = mockMvc.perform(get("/api/employees/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "k3x9:41"));
+            //then
+        resultActions.andExpect(request().asyncStarted());
+        then(changeFeed).should().subscribe("k3x9:41");
+    }
+
+    @Test
+    public void givenSinceToken_whenGetChanges_thenReturnUpdatesDeletesAndNextToken() throws Exception {
+            //given
+        EmployeeView employee = new EmployeeView(1L, "olumide", "dele-johnson", "olumide@gmail.com", 2L);
+        given(employeeService.getChangesSince("abc", 500)).willReturn(new EmployeeChanges(List.of(employee), List.of(2L), "def", false));
+            //when
+        ResultActions resultActions = mockMvc.perform(get("/api/employees/changes").param("since", "abc"));
+            //then
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated[0].id", is(1)))
+                .andExpect(jsonPath("$.deleted[0]", is(2)))
+                .andExpect(jsonPath("$.nextToken", is("def")))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+    }
+
+    @Test
+    public void givenExpiredToken_whenGetChanges_thenReturnGone() throws Exception {
+            //given
+        given(employeeService.getChangesSince("abc", 500)).willThrow(new ChangeTokenExpiredException("expired"));
+            //when
+        ResultActions resultActions = mockMvc.perform(get("/api/employees/changes").param("since", "abc"));
+            //then
+        resultActions.andExpect(status().isGone());
+    }
+
+    @Test
+    public void givenCsvBody_whenImportEmployees_thenStreamBodyToServiceAndReturnResult() throws Exception {
+            //given
+        String csv = "first_name,last_name,email\nolumide,dele-johnson,olumide@gmail.com\n";
+        given(employeeService.importCsv(any(InputStream.class))).willAnswer(invocation -> {
+            String body = new String(invocation.getArgument(0, InputStream.class).readAllBytes(), StandardCharsets.UTF_8);
+            return new EmployeeImportResult(body.lines().count() - 1, 0, 1,
+                    List.of(new EmployeeImportError(1, "olumide@gmail.com", "email already exists")));
+        });
+            //when
+        ResultActions resultActions = mockMvc.perform(post("/api/employees/import")
+                .contentType("text/csv")
+                .content(csv));
+            //then
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows", is(1)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.errors[0].reason", is("email already exists")));
+    }
+
+    @Test
+    public void givenEmployees_whenExportEmployees_thenStreamCsvAttachment() throws Exception {
+            //given
+        given(employeeService.exportCsv(any(OutputStream.class))).willAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write("id,first_name\n1,olumide\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+            //when
+        ResultActions resultActions = mockMvc.perform(get("/api/employees/export").accept("text/csv"));
+            //then
+        resultActions.andExpect(request().asyncStarted());
+        mockMvc.perform(asyncDispatch(resultActions.andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.csv\""))
+                .andExpect(content().string("id,first_name\n1,olumide\n"));
+    }
+}
@@ -0,0 +1,286 @@
+package com.olumide.springboottesting.controller;
+
+import com.olumide.springboottesting.dto.EmployeeBatchResult;
+import com.olumide.springboottesting.dto.EmployeeDeleteRequest;
+import com.olumide.springboottesting.dto.EmployeeDeleteResult;
+import com.olumide.springboottesting.dto.EmployeePage;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.exception.DuplicateEmailException;
+import com.olumide.springboottesting.exception.ResourceNotFoundException;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeHandlerTest {
+
+    @Mock
+    private ReactiveEmployeeService employeeService;
+
+    private WebTestClient webTestClient;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        webTestClient = WebTestClient
+                .bindToRouterFunction(new EmployeeRouter().employeeRoutes(new EmployeeHandler(employeeService)))
+                .build();
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .version(0L)
+                .build();
+    }
+
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnCreated() {
+        //given
+        given(employeeService.saveEmployee(any(Employee.class))).willReturn(Mono.just(employee));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        //then
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.email").isEqualTo("olumide@gmail.com");
+    }
+
+    @Test
+    public void givenTakenEmail_whenCreateEmployee_thenReturnConflict() {
+        //given
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willReturn(Mono.error(new DuplicateEmailException("Employee already exist with given email olumide@gmail.com")));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        //then
+        response.expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    public void givenListOfEmployees_whenGetAllEmployees_thenReturnJsonArray() {
+        //given
+        Employee other = Employee.builder().id(2L).firstName("ade").lastName("bola").email("ade@gmail.com").build();
+        given(employeeService.getAllEmployees()).willReturn(Flux.just(employee, other));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees").exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].email").isEqualTo("ade@gmail.com");
+    }
+
+    @Test
+    public void givenNdjsonAccept_whenGetAllEmployees_thenStreamOneEmployeePerLine() {
+        //given
+        Employee other = Employee.builder().id(2L).firstName("ade").lastName("bola").email("ade@gmail.com").build();
+        given(employeeService.getAllEmployees()).willReturn(Flux.just(employee, other));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Employee.class).hasSize(2);
+    }
+
+    @Test
+    public void givenMissingEmployee_whenGetEmployeeById_thenReturnNotFound() {
+        //given
+        given(employeeService.getById(1L)).willReturn(Mono.empty());
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/{id}", 1L).exchange();
+
+        //then
+        response.expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenEmployee_whenUpdateEmployee_thenUsePathId() {
+        //given
+        given(employeeService.updateEmployee(any(Employee.class)))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/employees/{id}", 7L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(7);
+    }
+
+    @Test
+    public void givenMissingEmployee_whenDeleteEmployee_thenReturnNotFound() {
+        //given
+        given(employeeService.deleteEmployee(1L))
+                .willReturn(Mono.error(new ResourceNotFoundException("Employee does not exist with id 1")));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.delete().uri("/api/employees/{id}", 1L).exchange();
+
+        //then
+        response.expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenEmployee_whenDeleteEmployee_thenReturnMessage() {
+        //given
+        given(employeeService.deleteEmployee(1L)).willReturn(Mono.empty());
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.delete().uri("/api/employees/{id}", 1L).exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Employee deleted successfully");
+    }
+
+    @Test
+    public void givenNonNumericId_whenGetEmployeeById_thenReturnBadRequest() {
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/{id}", "abc").exchange();
+
+        //then
+        response.expectStatus().isBadRequest();
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    public void givenBatch_whenCreateEmployees_thenReturnResultPerRow() {
+        //given
+        given(employeeService.saveEmployees(anyList())).willReturn(Mono.just(List.of(
+                EmployeeBatchResult.created(0, 1L, "olumide@gmail.com"),
+                EmployeeBatchResult.duplicate(1, "olumide@gmail.com"))));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(employee, employee))
+                .exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].status").isEqualTo("DUPLICATE_EMAIL");
+    }
+
+    @Test
+    public void givenCursorAndSize_whenGetEmployeePage_thenPassThemOn() {
+        //given
+        given(employeeService.getEmployeePage("abc", 10))
+                .willReturn(Mono.just(new EmployeePage(List.of(EmployeeView.of(employee)), "next")));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/page?cursor=abc&size=10").exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].email").isEqualTo("olumide@gmail.com")
+                .jsonPath("$.nextCursor").isEqualTo("next");
+    }
+
+    @Test
+    public void givenCriteria_whenSearchEmployees_thenSearchWithDefaultPageSize() {
+        //given
+        given(employeeService.searchEmployees(new EmployeeSearchCriteria("dele", null, "gmail.com", 1L, null), null, 100))
+                .willReturn(Mono.just(new EmployeePage(List.of(EmployeeView.of(employee)), null)));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.get()
+                .uri("/api/employees/search?lastName=dele&emailDomain=gmail.com&minId=1")
+                .exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1);
+    }
+
+    @Test
+    public void givenNonNumericSize_whenGetEmployeePage_thenReturnBadRequest() {
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/page?size=ten").exchange();
+
+        //then
+        response.expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void givenPatch_whenPatchEmployee_thenReturnPatchedEmployee() {
+        //given
+        EmployeePatch patch = new EmployeePatch("omotara", null, null, null);
+        given(employeeService.patchEmployee(1L, patch)).willReturn(Mono.just(employee));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.patch().uri("/api/employees/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(patch)
+                .exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    public void givenDeleteRequest_whenDeleteEmployees_thenReturnDeletedCount() {
+        //given
+        EmployeeDeleteRequest request = new EmployeeDeleteRequest(List.of(1L, 2L), "gmail.com");
+        given(employeeService.deleteEmployees(request)).willReturn(Mono.just(new EmployeeDeleteResult(5)));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.method(HttpMethod.DELETE).uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deleted").isEqualTo(5);
+    }
+}
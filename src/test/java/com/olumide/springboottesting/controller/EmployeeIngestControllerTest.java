@@ -0,0 +1,84 @@
+package com.olumide.springboottesting.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olumide.springboottesting.dto.EmployeeIngestStatus;
+import com.olumide.springboottesting.exception.IngestQueueFullException;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.service.EmployeeIngestQueue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+@WebMvcTest(controllers = EmployeeIngestController.class, properties = "employee.ingest.enabled=true")
+public class EmployeeIngestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeIngestQueue ingestQueue;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Employee employee = Employee.builder()
+            .firstName("olumide")
+            .lastName("dele-johnson")
+            .email("olumide@gmail.com")
+            .build();
+
+    @Test
+    public void givenEmployee_whenIngest_thenAcceptWithStatusLocation() throws Exception{
+        //given
+        given(ingestQueue.submit(any(Employee.class))).willReturn(EmployeeIngestStatus.queued("t-1", "olumide@gmail.com"));
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees/ingest")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        //then
+        response.andDo(print()).andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/api/employees/ingest/t-1"))
+                .andExpect(jsonPath("$.status", is("QUEUED")));
+    }
+
+    @Test
+    public void givenFullQueue_whenIngest_thenTooManyRequestsWithRetryAfter() throws Exception{
+        //given
+        given(ingestQueue.submit(any(Employee.class))).willThrow(new IngestQueueFullException("Ingest queue is full, retry later"));
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees/ingest")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        //then
+        response.andDo(print()).andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void givenUnknownTicket_whenGetStatus_thenNotFound() throws Exception{
+        //given
+        given(ingestQueue.getStatus("missing")).willReturn(Optional.empty());
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/ingest/{ticket}", "missing"));
+        //then
+        response.andExpect(status().isNotFound());
+    }
+}
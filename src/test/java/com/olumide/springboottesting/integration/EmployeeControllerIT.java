@@ -3,11 +3,14 @@ package com.olumide.springboottesting.integration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.olumide.springboottesting.model.Employee;
 import com.olumide.springboottesting.repository.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -18,9 +21,16 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -41,6 +51,12 @@ public class EmployeeControllerIT extends AbstractionBaseTest{
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @LocalServerPort
+    private int port;
+
     @BeforeEach
     void setup(){
         employeeRepository.deleteAll();
@@ -66,6 +82,53 @@ public class EmployeeControllerIT extends AbstractionBaseTest{
                 .andExpect(MockMvcResultMatchers.jsonPath("$.lastName", is(employee.getLastName())));
     }
 
+    @Test
+    public void givenIdempotencyKey_whenCreateRetried_thenReplayOriginalResponseAndInsertOnce() throws Exception {
+        //given
+        Employee employee = Employee.builder()
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build();
+        String body = objectMapper.writeValueAsString(employee);
+        String first = mockMvc.perform(post("/api/employees").header("Idempotency-Key", "create-olumide")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        //when
+        ResultActions retry = mockMvc.perform(post("/api/employees").header("Idempotency-Key", "create-olumide")
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+
+        //then
+        retry.andExpect(status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().string("Idempotent-Replayed", "true"))
+                .andExpect(MockMvcResultMatchers.content().string(first));
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenIdempotencyKey_whenRetriedWithAnotherBody_thenRefuseWith422() throws Exception {
+        //given
+        Employee employee = Employee.builder()
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build();
+        mockMvc.perform(post("/api/employees").header("Idempotency-Key", "create-changed")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated());
+        employee.setEmail("omotara@gmail.com");
+
+        //when
+        ResultActions retry = mockMvc.perform(post("/api/employees").header("Idempotency-Key", "create-changed")
+                .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+
+        //then
+        retry.andExpect(status().isUnprocessableEntity());
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+
     @Test
     public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeeList() throws Exception{
         //given
@@ -106,6 +169,25 @@ public class EmployeeControllerIT extends AbstractionBaseTest{
                 .andExpect(jsonPath("$.lastName", is(employee.getLastName())));
     }
 
+    @Test
+    public void givenSavedAndMissingIds_whenMultiGet_thenReturnResultsInRequestOrder() throws Exception{
+        //given
+        Employee saved = employeeRepository.save(Employee.builder()
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build());
+        long missingId = saved.getId() + 1000;
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", missingId + "," + saved.getId()));
+        //then
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("NOT_FOUND")))
+                .andExpect(jsonPath("$[1].status", is("FOUND")))
+                .andExpect(jsonPath("$[1].employee.email", is("olumide@gmail.com")));
+    }
+
     @Test
     public void givenInvalidEmployeeId_whenGetEmployeeId_thenReturnEmployeeObject() throws Exception{
         //given
@@ -190,4 +272,110 @@ public class EmployeeControllerIT extends AbstractionBaseTest{
         //then
         resultActions.andExpect(status().isOk()).andDo(print());
     }
+
+    @Test
+    public void givenRequest_whenServed_thenRecordServiceRepositoryAndStatementMetrics() throws Exception {
+        //given
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build());
+
+        //when
+        mockMvc.perform(get("/api/employees/{id}", employee.getId())).andExpect(status().isOk());
+
+        //then
+        assertThat(meterRegistry.find("employee.service").tag("method", "getById").timer()).isNotNull();
+        assertThat(meterRegistry.find("spring.data.repository.invocations").tag("method", "findViewById").timer()).isNotNull();
+        assertThat(meterRegistry.find("employee.db.statements.per.request").tag("uri", "/api/employees/{id}").summary().max())
+                .isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.find("hikaricp.connections.active").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hibernate.statements").functionCounter()).isNotNull();
+        assertThat(meterRegistry.find("employee.lookup.requests").counter().count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.find("employee.lookup.batch.size").summary().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void givenPolledList_whenUnchangedThenWritten_thenNotModifiedUntilWrite() throws Exception {
+        //given
+        employeeRepository.save(Employee.builder()
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build());
+        String eTag = mockMvc.perform(get("/api/employees")).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when
+        ResultActions unchanged = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, eTag));
+        employeeRepository.save(Employee.builder()
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email("omotara@gmail.com")
+                .build());
+        ResultActions changed = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        //then
+        unchanged.andExpect(status().isNotModified());
+        changed.andExpect(status().isOk()).andExpect(jsonPath("$.size()", is(2)));
+    }
+
+    @Test
+    public void givenETagFromGet_whenPutWithIfMatchTwice_thenSecondFailsPrecondition() throws Exception {
+        //given
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build());
+        String eTag = mockMvc.perform(get("/api/employees/{id}", employee.getId())).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Employee update = Employee.builder().firstName("ade").lastName("dele-johnson").email("olumide@gmail.com").build();
+
+        //when
+        ResultActions first = mockMvc.perform(put("/api/employees/{id}", employee.getId())
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)));
+        ResultActions second = mockMvc.perform(put("/api/employees/{id}", employee.getId())
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)));
+
+        //then
+        first.andExpect(status().isOk()).andExpect(jsonPath("$.firstName", is("ade")));
+        second.andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void givenLargeList_whenClientAcceptsGzip_thenCompressResponse() throws Exception {
+        //given
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            employees.add(Employee.builder()
+                    .firstName("first" + i)
+                    .lastName("last" + i)
+                    .email("employee" + i + "@gmail.com")
+                    .build());
+        }
+        employeeRepository.saveAll(employees);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employees"))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .GET()
+                .build();
+
+        //when
+        HttpResponse<byte[]> response;
+        try (HttpClient httpClient = HttpClient.newHttpClient()) {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+
+        //then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).contains("gzip");
+        try (GZIPInputStream json = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertThat(objectMapper.readTree(json).size()).isEqualTo(100);
+        }
+    }
 }
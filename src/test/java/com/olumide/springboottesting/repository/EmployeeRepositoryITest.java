@@ -8,11 +8,27 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import com.olumide.springboottesting.dto.ChangeToken;
+import com.olumide.springboottesting.dto.EmployeeChange;
+import com.olumide.springboottesting.dto.EmployeeImportError;
+import com.olumide.springboottesting.dto.EmployeeImportResult;
+import com.olumide.springboottesting.exception.InvalidCsvException;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.dto.EmployeeView;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 
 @DataJpaTest
@@ -22,6 +38,9 @@ class EmployeeRepositoryITest extends AbstractionBaseTest {
     @Autowired
     EmployeeRepository employeeRepository;
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     private Employee employee;
 
     @BeforeEach
@@ -145,4 +164,257 @@ class EmployeeRepositoryITest extends AbstractionBaseTest {
         //then
         assertThat(employeeOptional).isEmpty();
         }
-}
\ No newline at end of file
+
+    @Test
+    public void givenTakenEmail_whenInsertIfEmailAbsent_thenReturnEmpty(){
+        //given
+        employeeRepository.insertIfEmailAbsent(employee);
+        Employee sameEmail = Employee.builder()
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email(" Olumide@Gmail.com ")
+                .build();
+        //when
+        Optional<Employee> inserted = employeeRepository.insertIfEmailAbsent(sameEmail);
+        //then
+        assertThat(inserted).isEmpty();
+    }
+
+    @Test
+    public void givenNewEmail_whenInsertIfEmailAbsent_thenReturnInsertedRow(){
+        //when
+        Optional<Employee> inserted = employeeRepository.insertIfEmailAbsent(employee);
+        //then
+        assertThat(inserted).isPresent();
+        assertThat(inserted.get().getId()).isGreaterThan(0);
+        assertThat(employeeRepository.findById(inserted.get().getId())).isPresent();
+    }
+
+    @Test
+    public void givenOneTakenEmail_whenInsertAllIfEmailAbsent_thenInsertTheOthersAndSkipIt(){
+        //given
+        employeeRepository.insertIfEmailAbsent(employee);
+        Employee sameEmail = Employee.builder()
+                .firstName("olumide")
+                .lastName("adeyemi")
+                .email("OLUMIDE@gmail.com")
+                .build();
+        Employee newEmail = Employee.builder()
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email("omotara@gmail.com")
+                .build();
+        //when
+        List<Employee> inserted = employeeRepository.insertAllIfEmailAbsent(List.of(sameEmail, newEmail));
+        //then
+        assertThat(inserted).extracting(Employee::getEmail).containsExactly("omotara@gmail.com");
+        assertThat(inserted.get(0).getId()).isGreaterThan(0);
+        assertThat(employeeRepository.findAll()).hasSize(2);
+    }
+
+    @Test
+    public void givenPatch_whenUpdateFields_thenWriteChangedColumnsAndBumpVersion(){
+        //given
+        Employee inserted = employeeRepository.insertIfEmailAbsent(employee).get();
+        //when
+        Optional<Employee> updated = employeeRepository.updateFields(inserted.getId(),
+                new EmployeePatch("omotara", null, null, inserted.getVersion()));
+        //then
+        assertThat(updated).isPresent();
+        assertThat(updated.get().getFirstName()).isEqualTo("omotara");
+        assertThat(updated.get().getLastName()).isEqualTo("dele-johnson");
+        assertThat(updated.get().getVersion()).isEqualTo(inserted.getVersion() + 1);
+    }
+
+    @Test
+    public void givenStaleVersion_whenUpdateFields_thenReturnEmpty(){
+        //given
+        Employee inserted = employeeRepository.insertIfEmailAbsent(employee).get();
+        //when
+        Optional<Employee> updated = employeeRepository.updateFields(inserted.getId(),
+                new EmployeePatch("omotara", null, null, inserted.getVersion() + 5));
+        //then
+        assertThat(updated).isEmpty();
+    }
+
+    @Test
+    public void givenChangeCounterTrigger_whenEmployeesWritten_thenCounterMovesPerStatement(){
+        //given
+        long before = employeeRepository.findChangeCount();
+        //when
+        Employee saved = employeeRepository.saveAndFlush(employee);
+        long afterInsert = employeeRepository.findChangeCount();
+        employeeRepository.deleteRowById(saved.getId());
+        long afterDelete = employeeRepository.findChangeCount();
+        //then
+        assertThat(afterInsert).isGreaterThan(before);
+        assertThat(afterDelete).isGreaterThan(afterInsert);
+    }
+
+    @Test
+    public void givenStaleVersion_whenDeleteRowByIdAndVersion_thenKeepRow(){
+        //given
+        Employee saved = employeeRepository.saveAndFlush(employee);
+        //when
+        int stale = employeeRepository.deleteRowByIdAndVersion(saved.getId(), saved.getVersion() + 1);
+        int current = employeeRepository.deleteRowByIdAndVersion(saved.getId(), saved.getVersion());
+        //then
+        assertThat(stale).isZero();
+        assertThat(current).isEqualTo(1);
+    }
+
+    @Test
+    public void givenEmployees_whenSearchByLastNamePrefixAndDomain_thenReturnMatches(){
+        //given
+        Employee employee2 = Employee.builder()
+                .firstName("omotara")
+                .lastName("adeyemi")
+                .email("omotara@yahoo.com")
+                .build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee2));
+        //when
+        List<EmployeeView> byLastName = employeeRepository.search(new EmployeeSearchCriteria("DELE", null, null, null, null), 0L, 10);
+        List<EmployeeView> byDomain = employeeRepository.search(new EmployeeSearchCriteria(null, null, "yahoo.com", null, null), 0L, 10);
+        //then
+        assertThat(byLastName).extracting(EmployeeView::email).containsExactly("olumide@gmail.com");
+        assertThat(byDomain).extracting(EmployeeView::email).containsExactly("omotara@yahoo.com");
+    }
+
+    @Test
+    public void givenEmployees_whenFindViewsByIds_thenReturnExistingOnes(){
+        //given
+        Employee employee2 = Employee.builder()
+                .firstName("omotara")
+                .lastName("adeyemi")
+                .email("omotara@yahoo.com")
+                .build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee2));
+        //when
+        List<EmployeeView> views = employeeRepository.findViewsByIds(List.of(employee.getId(), employee2.getId(), -1L));
+        //then
+        assertThat(views).extracting(EmployeeView::email).containsExactlyInAnyOrder("olumide@gmail.com", "omotara@yahoo.com");
+    }
+
+    @Test
+    public void givenEmailDomain_whenDeleteByEmailDomain_thenDeleteEveryMatchAcrossChunks(){
+        //given
+        Employee employee2 = Employee.builder()
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email("omotara@gmail.com")
+                .build();
+        Employee employee3 = Employee.builder()
+                .firstName("banki")
+                .lastName("dele-johnson")
+                .email("banki@yahoo.com")
+                .build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee2, employee3));
+        //when
+        long deleted = employeeRepository.deleteByEmailDomain("gmail.com", 1);
+        //then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(employeeRepository.findAll()).extracting(Employee::getEmail).containsExactly("banki@yahoo.com");
+    }
+
+    @Test
+    public void givenSearchIndexes_whenExplainSearchQueries_thenPlannerUsesThem(){
+        //given
+        employeeRepository.saveAndFlush(employee);
+        // the table is tiny, so take sequential scans off the table to see which index the planner would pick
+        jdbcTemplate.execute("set local enable_seqscan = off");
+        //when
+        String lastNamePlan = explain("select id from employees where lower(last_name) like 'dele%' order by id");
+        String firstNamePlan = explain("select id from employees where lower(first_name) like 'olu%' order by id");
+        String domainPlan = explain("select id from employees where split_part(email, '@', 2) = 'gmail.com' order by id");
+        String deletePlan = explain(EmployeeRepositoryCustomImpl.DELETE_DOMAIN_CHUNK
+                .replaceFirst("\\?", "'gmail.com'").replace("?", "10"));
+        //then
+        assertThat(lastNamePlan).contains("idx_employees_last_name_prefix");
+        assertThat(firstNamePlan).contains("idx_employees_first_name_prefix");
+        assertThat(domainPlan).contains("idx_employees_email_domain");
+        assertThat(deletePlan).contains("idx_employees_email_domain");
+    }
+
+    private String explain(String sql){
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+
+    @Test
+    public void givenWritesAndDelete_whenFindChangesAfter_thenReturnStampedRowsAndTombstonesInOrder(){
+        //given
+        Employee kept = employeeRepository.insertIfEmailAbsent(employee).orElseThrow();
+        Employee removed = employeeRepository.insertIfEmailAbsent(Employee.builder()
+                .firstName("omotara").lastName("dele-johnson").email("omotara@gmail.com").build()).orElseThrow();
+        employeeRepository.deleteRowById(removed.getId());
+        // a negative settle time puts the horizon after this transaction's now()
+        Instant horizon = employeeRepository.findSettledHorizon(Duration.ofMinutes(-1));
+
+        //when
+        List<EmployeeChange> withDeletes = employeeRepository.findChangesAfter(ChangeToken.BEGINNING, horizon, true, 10);
+        List<EmployeeChange> liveOnly = employeeRepository.findChangesAfter(ChangeToken.BEGINNING, horizon, false, 10);
+        List<EmployeeChange> afterFirst = employeeRepository.findChangesAfter(withDeletes.get(0).position(), horizon, true, 10);
+
+        //then
+        assertThat(kept.getUpdatedAt()).isNotNull();
+        assertThat(withDeletes).extracting(EmployeeChange::id).containsExactly(kept.getId(), removed.getId());
+        assertThat(withDeletes.get(1).isDeleted()).isTrue();
+        assertThat(liveOnly).extracting(EmployeeChange::id).containsExactly(kept.getId());
+        assertThat(afterFirst).extracting(EmployeeChange::id).containsExactly(removed.getId());
+        assertThat(employeeRepository.findChangesAfter(ChangeToken.BEGINNING, kept.getUpdatedAt(), true, 10)).isEmpty();
+    }
+
+    @Test
+    public void givenCsvWithInvalidRows_whenImportCsv_thenInsertValidRowsAndReportEachRejection(){
+        //given
+        employeeRepository.insertIfEmailAbsent(employee);
+        String csv = """
+                first_name,last_name,email
+                ade,dele-johnson,Ade@Gmail.com
+                ,dele-johnson,missing@gmail.com
+                bola,dele-johnson,ade@gmail.com
+                olu,dele-johnson,olumide@gmail.com
+                "tara, jr",dele-johnson,tara@gmail.com
+                """;
+
+        //when
+        EmployeeImportResult result = employeeRepository.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 10);
+
+        //then
+        assertThat(result.rows()).isEqualTo(5);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(3);
+        assertThat(result.errors()).containsExactly(
+                new EmployeeImportError(2, "missing@gmail.com", "first_name, last_name and email are required"),
+                new EmployeeImportError(3, "ade@gmail.com", "duplicate email in file"),
+                new EmployeeImportError(4, "olumide@gmail.com", "email already exists"));
+        assertThat(employeeRepository.findByEmail("ade@gmail.com")).get().extracting(Employee::getFirstName).isEqualTo("ade");
+        assertThat(employeeRepository.findByEmail("tara@gmail.com")).get().extracting(Employee::getFirstName).isEqualTo("tara, jr");
+    }
+
+    @Test
+    public void givenRowWithExtraColumn_whenImportCsv_thenRejectFile(){
+        //given
+        String csv = "first_name,last_name,email\nade,dele-johnson,ade@gmail.com,extra\n";
+
+        //when / then
+        assertThatThrownBy(() -> employeeRepository.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 10))
+                .isInstanceOf(InvalidCsvException.class);
+    }
+
+    @Test
+    public void givenEmployees_whenCopyOut_thenWriteHeaderAndOneLinePerRow(){
+        //given
+        Employee saved = employeeRepository.insertIfEmailAbsent(employee).orElseThrow();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        long rows = employeeRepository.copyOut(out);
+
+        //then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(1);
+        assertThat(lines[0]).isEqualTo("id,first_name,last_name,email,version,updated_at");
+        assertThat(lines[1]).startsWith(saved.getId() + ",olumide,dele-johnson,olumide@gmail.com,0,");
+    }
+}
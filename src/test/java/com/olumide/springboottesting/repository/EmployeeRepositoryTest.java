@@ -1,13 +1,18 @@
 package com.olumide.springboottesting.repository;
 
+import com.olumide.springboottesting.dto.EmployeeView;
 import com.olumide.springboottesting.model.Employee;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +25,9 @@ class EmployeeRepositoryTest {
     @Autowired
     EmployeeRepository employeeRepository;
 
+    @Autowired
+    TestEntityManager entityManager;
+
     private Employee employee;
 
     @BeforeEach
@@ -115,4 +123,68 @@ class EmployeeRepositoryTest {
         assertThat(employeeOptional).isEmpty();
 
         }
-}
\ No newline at end of file
+
+    @Test
+    public void givenEmployees_whenFindByIdGreaterThan_thenReturnNextKeysetPage(){
+        //given
+        Employee employee2 = Employee.builder()
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email("omotarae@gmail.com")
+                .build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee2);
+        //when
+        List<EmployeeView> page = employeeRepository.findViewsByIdGreaterThan(employee.getId(), PageRequest.of(0, 10));
+        //then
+        assertThat(page).extracting(EmployeeView::id).containsExactly(employee2.getId());
+    }
+
+    @Test
+    public void givenEmployees_whenFindViews_thenReturnRecordsWithoutManagingEntities(){
+        //given
+        Employee employee2 = Employee.builder()
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email("omotarae@gmail.com")
+                .build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee2));
+        entityManager.clear();
+        //when
+        List<EmployeeView> all = employeeRepository.findAllViews();
+        Optional<EmployeeView> one = employeeRepository.findViewById(employee2.getId());
+        //then
+        assertThat(all).extracting(EmployeeView::email).containsExactly("olumide@gmail.com", "omotarae@gmail.com");
+        assertThat(one).map(EmployeeView::version).contains(0L);
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    public void givenEmployees_whenStreamAll_thenVisitEveryRowInIdOrder(){
+        //given
+        Employee employee2 = Employee.builder()
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email("omotarae@gmail.com")
+                .build();
+        employeeRepository.saveAndFlush(employee);
+        employeeRepository.saveAndFlush(employee2);
+        List<Employee> streamed = new ArrayList<>();
+        //when
+        employeeRepository.streamAll(streamed::add);
+        //then
+        assertThat(streamed).extracting(Employee::getEmail).containsExactly("olumide@gmail.com", "omotarae@gmail.com");
+    }
+
+    @Test
+    public void givenEmployeeId_whenDeleteRowById_thenReturnAffectedRows(){
+        //given
+        employeeRepository.save(employee);
+        //when
+        int deleted = employeeRepository.deleteRowById(employee.getId());
+        int deletedAgain = employeeRepository.deleteRowById(employee.getId());
+        //then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(deletedAgain).isZero();
+    }
+}
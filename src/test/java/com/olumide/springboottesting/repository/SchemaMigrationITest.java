@@ -0,0 +1,192 @@
+package com.olumide.springboottesting.repository;
+
+import com.olumide.springboottesting.integration.AbstractionBaseTest;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchemaMigrationITest extends AbstractionBaseTest {
+
+    private static final String LATEST_VERSION = "8";
+
+    private static final String SEARCH_INDEX_VERSION = "6";
+
+    private static final List<String> SEARCH_INDEXES = List.of("idx_employees_last_name_prefix",
+            "idx_employees_first_name_prefix", "idx_employees_email_domain");
+
+    @Autowired
+    Flyway flyway;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void givenMigratedDatabase_whenValidated_thenEveryMigrationIsApplied(){
+        //given
+        //when
+        var info = flyway.info();
+        //then
+        assertThat(info.pending()).isEmpty();
+        assertThat(info.current().getVersion().getVersion()).isEqualTo(LATEST_VERSION);
+        flyway.validate();
+    }
+
+    @Test
+    public void givenWriterHoldingTransaction_whenIndexMigrationRuns_thenOtherWritesAreNotBlocked() throws Exception {
+        //given
+        SEARCH_INDEXES.forEach(index -> jdbcTemplate.execute("drop index if exists " + index));
+        jdbcTemplate.update("delete from flyway_schema_history where version = ?", SEARCH_INDEX_VERSION);
+        CompletableFuture<?> migration;
+        try (Connection openWriter = dataSource.getConnection()) {
+            // the lock a writer holds until it commits: a plain create index would queue its share lock behind
+            // this transaction, and every later insert behind that
+            openWriter.setAutoCommit(false);
+            try (Statement statement = openWriter.createStatement()) {
+                statement.execute("lock table employees in row exclusive mode");
+            }
+            migration = CompletableFuture.runAsync(() -> Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .outOfOrder(true)
+                    .load()
+                    .migrate());
+            awaitIndexBuildWaiting();
+            //when
+            try (Connection writer = dataSource.getConnection(); Statement statement = writer.createStatement()) {
+                statement.execute("set lock_timeout = '2s'");
+                insert(writer, "migration-concurrent@gmail.com");
+            }
+            //then
+            assertThat(migration).isNotDone();
+            openWriter.commit();
+        }
+        migration.get(30, TimeUnit.SECONDS);
+        try {
+            assertThat(jdbcTemplate.queryForObject("select count(*) from pg_index i join pg_class c on c.oid = i.indexrelid"
+                    + " where c.relname in (?, ?, ?) and i.indisvalid", Integer.class, SEARCH_INDEXES.toArray()))
+                    .isEqualTo(SEARCH_INDEXES.size());
+            assertThat(flyway.info().pending()).isEmpty();
+        } finally {
+            jdbcTemplate.update("delete from employees where email like 'migration-%'");
+        }
+    }
+
+    @Test
+    public void givenWriterHoldingTransaction_whenAnotherWriterInserts_thenChangeCounterDoesNotBlockIt() throws Exception {
+        //given
+        try (Connection openWriter = dataSource.getConnection(); Connection writer = dataSource.getConnection()) {
+            assumeTrue(backendPid(openWriter) % 128 != backendPid(writer) % 128, "both connections share a counter slot");
+            openWriter.setAutoCommit(false);
+            writer.setAutoCommit(false);
+            try {
+                insert(openWriter, "migration-open@gmail.com");
+                long before = jdbcTemplate.queryForObject("select coalesce(sum(value), 0) from employees_change_counts", Long.class);
+                //when
+                try (Statement statement = writer.createStatement()) {
+                    statement.execute("set local lock_timeout = '2s'");
+                }
+                insert(writer, "migration-concurrent@gmail.com");
+                writer.commit();
+                //then
+                assertThat(jdbcTemplate.queryForObject("select coalesce(sum(value), 0) from employees_change_counts", Long.class))
+                        .isGreaterThan(before);
+            } finally {
+                openWriter.rollback();
+                jdbcTemplate.update("delete from employees where email like 'migration-%'");
+            }
+        }
+    }
+
+    @Test
+    public void givenTableCreatedByOriginalDdlAuto_whenMigrated_thenAdoptItWithoutReusingIds(){
+        //given
+        jdbcTemplate.execute("drop schema if exists ddl_auto_baseline cascade");
+        jdbcTemplate.execute("create schema ddl_auto_baseline");
+        // the shape Hibernate's ddl-auto=update gave the original entity: identity id, no version, no unique email
+        jdbcTemplate.execute("create table ddl_auto_baseline.employees (id bigint generated by default as identity"
+                + " primary key, email varchar(255) not null, first_name varchar(255) not null,"
+                + " last_name varchar(255) not null)");
+        jdbcTemplate.update("insert into ddl_auto_baseline.employees (email, first_name, last_name) values"
+                + " ('Olumide@Gmail.com', 'olumide', 'dele-johnson'), ('tunde@gmail.com', 'tunde', 'bakare')");
+        Flyway baseline = Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .schemas("ddl_auto_baseline")
+                .defaultSchema("ddl_auto_baseline")
+                .load();
+        try {
+            //when
+            baseline.migrate();
+            //then
+            assertThat(baseline.info().pending()).isEmpty();
+            assertThat(jdbcTemplate.queryForList("select version from ddl_auto_baseline.employees", Long.class))
+                    .containsOnly(0L);
+            assertThat(jdbcTemplate.queryForObject("select email from ddl_auto_baseline.employees where first_name = 'olumide'",
+                    String.class)).isEqualTo("olumide@gmail.com");
+            assertThat(jdbcTemplate.queryForObject("select count(*) from pg_constraint where conname = 'uk_employees_email'"
+                    + " and conrelid = 'ddl_auto_baseline.employees'::regclass", Integer.class)).isEqualTo(1);
+            assertThat(jdbcTemplate.queryForObject("select is_identity from information_schema.columns"
+                    + " where table_schema = 'ddl_auto_baseline' and table_name = 'employees' and column_name = 'id'",
+                    String.class)).isEqualTo("NO");
+            Long maxId = jdbcTemplate.queryForObject("select max(id) from ddl_auto_baseline.employees", Long.class);
+            assertThat(jdbcTemplate.queryForObject("select nextval('ddl_auto_baseline.employees_seq')", Long.class))
+                    .isGreaterThan(maxId);
+            assertThatThrownBy(() -> jdbcTemplate.update("insert into ddl_auto_baseline.employees"
+                    + " (id, email, first_name, last_name) values (nextval('ddl_auto_baseline.employees_seq'),"
+                    + " 'tunde@gmail.com', 'tunde', 'bakare')"))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+        } finally {
+            jdbcTemplate.execute("drop schema ddl_auto_baseline cascade");
+        }
+    }
+
+    private static void insert(Connection connection, String email) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("insert into employees (id, first_name, last_name, email)"
+                    + " values (nextval('employees_seq'), 'migration', 'test', '" + email + "')");
+        }
+    }
+
+    private static int backendPid(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             var resultSet = statement.executeQuery("select pg_backend_pid()")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private void awaitIndexBuildWaiting() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Integer waiting = jdbcTemplate.queryForObject("select count(*) from pg_stat_activity"
+                    + " where query ilike '%create index%' and wait_event_type = 'Lock'"
+                    + " and pid <> pg_backend_pid()", Integer.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("index build never started waiting on the open transaction");
+    }
+}
@@ -0,0 +1,113 @@
+package com.olumide.springboottesting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olumide.springboottesting.controller.EmployeeController;
+import com.olumide.springboottesting.dto.EmployeeChangeEvent;
+import com.olumide.springboottesting.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class EmployeeChangeFeedTest {
+
+    @Test
+    public void givenLastEventIdInBuffer_whenSubscribe_thenReplayOnlyLaterChanges() throws Exception {
+        //given
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(16, 16, Duration.ofMinutes(1), Runnable::run);
+        feed.onChange(EmployeeChangeEvent.created(employee(1L)));
+        feed.onChange(EmployeeChangeEvent.updated(employee(1L)));
+        feed.onChange(EmployeeChangeEvent.deleted(1L));
+
+        //when
+        String body = stream(feed, feed.eventId(1));
+
+        //then
+        assertThat(body).doesNotContain("id:" + feed.eventId(1) + "\n")
+                .contains("id:" + feed.eventId(2) + "\nevent:updated\n", "id:" + feed.eventId(3) + "\nevent:deleted\n");
+    }
+
+    @Test
+    public void givenLastEventIdOutOfBuffer_whenSubscribe_thenSendResetAtLatestSequence() throws Exception {
+        //given
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(2, 16, Duration.ofMinutes(1), Runnable::run);
+        for (long id = 1; id <= 4; id++) {
+            feed.onChange(EmployeeChangeEvent.created(employee(id)));
+        }
+
+        //when
+        String body = stream(feed, feed.eventId(1));
+
+        //then
+        assertThat(body).contains("id:" + feed.eventId(4) + "\nevent:reset\n").doesNotContain("event:created");
+    }
+
+    @Test
+    public void givenLastEventIdFromBeforeRestart_whenSubscribe_thenSendResetEvenIfSequenceIsInBuffer() throws Exception {
+        //given
+        EmployeeChangeFeed previous = new EmployeeChangeFeed(16, 16, Duration.ofMinutes(1), Runnable::run);
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(16, 16, Duration.ofMinutes(1), Runnable::run);
+        for (long id = 1; id <= 3; id++) {
+            feed.onChange(EmployeeChangeEvent.created(employee(id)));
+        }
+
+        //when
+        String body = stream(feed, previous.eventId(1));
+
+        //then
+        assertThat(body).contains("id:" + feed.eventId(3) + "\nevent:reset\n").doesNotContain("event:created");
+    }
+
+    @Test
+    public void givenLastEventIdWithoutEpoch_whenSubscribe_thenSendReset() throws Exception {
+        //given
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(16, 16, Duration.ofMinutes(1), Runnable::run);
+        feed.onChange(EmployeeChangeEvent.created(employee(1L)));
+
+        //when
+        String body = stream(feed, "0");
+
+        //then
+        assertThat(body).contains("id:" + feed.eventId(1) + "\nevent:reset\n").doesNotContain("event:created");
+    }
+
+    @Test
+    public void givenSubscriberNotKeepingUp_whenQueueFills_thenDisconnectIt() {
+        //given
+        List<Runnable> stalledSends = new ArrayList<>();
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(16, 2, Duration.ofMinutes(1), stalledSends::add);
+        feed.subscribe(null);
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+
+        //when
+        for (long id = 1; id <= 3; id++) {
+            feed.onChange(EmployeeChangeEvent.created(employee(id)));
+        }
+
+        //then
+        assertThat(feed.subscriberCount()).isZero();
+    }
+
+    private static String stream(EmployeeChangeFeed feed, String lastEventId) throws Exception {
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new EmployeeController(mock(EmployeeService.class), new ObjectMapper(), feed))
+                .build();
+        return mockMvc.perform(get("/api/employees/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", lastEventId))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private static Employee employee(Long id) {
+        return Employee.builder().id(id).firstName("olumide").lastName("dele-johnson")
+                .email("olumide" + id + "@gmail.com").version(0L).build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.olumide.springboottesting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olumide.springboottesting.dto.EmployeeBatchResult;
+import com.olumide.springboottesting.dto.EmployeeIngestStatus;
+import com.olumide.springboottesting.exception.IngestQueueFullException;
+import com.olumide.springboottesting.exception.InvalidEmployeeException;
+import com.olumide.springboottesting.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.olumide.springboottesting.service.IngestJournalTest.employee;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EmployeeIngestQueueTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final EmployeeService employeeService = mock(EmployeeService.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<EmployeeIngestQueue> queues = new ArrayList<>();
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (EmployeeIngestQueue queue : queues) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    public void givenSubmissionsWithinFlushInterval_whenWritten_thenOneBatchAndStatusesPerTicket() throws Exception {
+        //given
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            return IntStream.range(0, employees.size())
+                    .mapToObj(i -> EmployeeBatchResult.created(i, 100L + i, employees.get(i).getEmail()))
+                    .toList();
+        });
+        EmployeeIngestQueue queue = queue(10, 100, Duration.ofMillis(200));
+
+        //when
+        EmployeeIngestStatus first = queue.submit(employee("one@gmail.com"));
+        EmployeeIngestStatus second = queue.submit(employee("two@gmail.com"));
+
+        //then
+        assertThat(first.status()).isEqualTo(EmployeeIngestStatus.Status.QUEUED);
+        awaitStatus(queue, second.ticket(), EmployeeIngestStatus.Status.CREATED);
+        assertThat(queue.getStatus(first.ticket())).get().extracting(EmployeeIngestStatus::id).isEqualTo(100L);
+        assertThat(queue.getStatus(second.ticket())).get().extracting(EmployeeIngestStatus::id).isEqualTo(101L);
+        verify(employeeService, times(1)).saveEmployees(anyList());
+        assertThat(meterRegistry.summary("employee.ingest.batch.size").max()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenQueueFull_whenSubmit_thenRefuse() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(EmployeeBatchResult.created(0, 1L, "one@gmail.com"));
+        });
+        EmployeeIngestQueue queue = queue(1, 1, Duration.ZERO);
+        queue.submit(employee("one@gmail.com"));
+
+        //when
+        //then
+        assertThatThrownBy(() -> queue.submit(employee("two@gmail.com"))).isInstanceOf(IngestQueueFullException.class);
+        assertThatThrownBy(() -> queue.submit(Employee.builder().email("x@gmail.com").build())).isInstanceOf(InvalidEmployeeException.class);
+        release.countDown();
+        assertThat(meterRegistry.counter("employee.ingest.rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenJournaledRowsFromStoppedRun_whenStart_thenWriteThemAfterTransientFailure() throws Exception {
+        //given
+        try (IngestJournal journal = new IngestJournal(dir.resolve("ingest.journal"), objectMapper, Long.MAX_VALUE)) {
+            journal.recover();
+            journal.append("left-over", employee("one@gmail.com"));
+        }
+        given(employeeService.saveEmployees(anyList()))
+                .willThrow(new QueryTimeoutException("statement timeout"))
+                .willReturn(List.of(EmployeeBatchResult.created(0, 7L, "one@gmail.com")));
+
+        //when
+        EmployeeIngestQueue queue = queue(10, 100, Duration.ZERO);
+
+        //then
+        awaitStatus(queue, "left-over", EmployeeIngestStatus.Status.CREATED);
+        verify(employeeService, times(2)).saveEmployees(anyList());
+        verify(employeeService, never()).saveEmployee(employee("one@gmail.com"));
+    }
+
+    private EmployeeIngestQueue queue(int capacity, int batchSize, Duration flushInterval) throws Exception {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", meterRegistry);
+        EmployeeIngestQueue queue = new EmployeeIngestQueue(employeeService, objectMapper, beans.getBeanProvider(MeterRegistry.class),
+                dir.resolve("ingest.journal").toString(), Long.MAX_VALUE, capacity, batchSize, flushInterval,
+                Duration.ofMinutes(1), Duration.ofSeconds(5));
+        queues.add(queue);
+        return queue;
+    }
+
+    private static void awaitStatus(EmployeeIngestQueue queue, String ticket, EmployeeIngestStatus.Status status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.getStatus(ticket).map(EmployeeIngestStatus::status).orElse(null) != status && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(queue.getStatus(ticket)).get().extracting(EmployeeIngestStatus::status).isEqualTo(status);
+    }
+}
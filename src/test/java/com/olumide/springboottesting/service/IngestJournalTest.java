@@ -0,0 +1,93 @@
+package com.olumide.springboottesting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olumide.springboottesting.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestJournalTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void givenUnfinishedEntriesAndTornLine_whenRecover_thenReturnOnlyAcknowledgedUnfinishedOnes() throws Exception {
+        //given
+        Path path = dir.resolve("ingest.journal");
+        try (IngestJournal journal = new IngestJournal(path, objectMapper, Long.MAX_VALUE)) {
+            journal.recover();
+            journal.append("t1", employee("one@gmail.com"));
+            journal.append("t2", employee("two@gmail.com"));
+            journal.append("t3", employee("three@gmail.com"));
+            journal.markDone(List.of("t2"));
+        }
+        // a crash in the middle of an append leaves a partial line that was never acknowledged
+        Files.writeString(path, "A t4 {\"firstName\":\"fo", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        //when
+        List<IngestJournal.Entry> entries;
+        try (IngestJournal journal = new IngestJournal(path, objectMapper, Long.MAX_VALUE)) {
+            entries = journal.recover();
+        }
+
+        //then
+        assertThat(entries).extracting(IngestJournal.Entry::ticket).containsExactly("t1", "t3");
+        assertThat(entries).extracting(entry -> entry.employee().getEmail()).containsExactly("one@gmail.com", "three@gmail.com");
+    }
+
+    @Test
+    public void givenEverythingDone_whenMarkDone_thenEmptyTheFile() throws Exception {
+        //given
+        Path path = dir.resolve("ingest.journal");
+        try (IngestJournal journal = new IngestJournal(path, objectMapper, Long.MAX_VALUE)) {
+            journal.recover();
+            journal.append("t1", employee("one@gmail.com"));
+            journal.append("t2", employee("two@gmail.com"));
+
+            //when
+            journal.markDone(List.of("t1", "t2"));
+
+            //then
+            assertThat(journal.outstanding()).isZero();
+        }
+        assertThat(Files.size(path)).isZero();
+    }
+
+    @Test
+    public void givenJournalPastThreshold_whenMarkDone_thenRewriteWithOnlyUnfinishedEntries() throws Exception {
+        //given
+        Path path = dir.resolve("ingest.journal");
+        try (IngestJournal journal = new IngestJournal(path, objectMapper, 1)) {
+            journal.recover();
+            journal.append("t1", employee("one@gmail.com"));
+            journal.append("t2", employee("two@gmail.com"));
+
+            //when
+            journal.markDone(List.of("t1"));
+            journal.append("t3", employee("three@gmail.com"));
+        }
+
+        //then
+        assertThat(Files.readAllLines(path)).hasSize(2)
+                .allMatch(line -> line.startsWith("A t2 ") || line.startsWith("A t3 "));
+    }
+
+    static Employee employee(String email) {
+        return Employee.builder()
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email(email)
+                .build();
+    }
+}
@@ -1,6 +1,24 @@
 package com.olumide.springboottesting.service.implementation;
 
+import com.olumide.springboottesting.dto.ChangeToken;
+import com.olumide.springboottesting.dto.EmployeeBatchResult;
+import com.olumide.springboottesting.dto.EmployeeChange;
+import com.olumide.springboottesting.dto.EmployeeChangeEvent;
+import com.olumide.springboottesting.dto.EmployeeChanges;
+import com.olumide.springboottesting.dto.EmployeeDeleteRequest;
+import com.olumide.springboottesting.dto.EmployeeDeleteResult;
+import com.olumide.springboottesting.dto.EmployeeImportResult;
+import com.olumide.springboottesting.dto.EmployeeLookupResult;
+import com.olumide.springboottesting.dto.EmployeePage;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.dto.EmployeeSearchCriteria;
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.dto.PageCursor;
+import com.olumide.springboottesting.exception.ChangeTokenExpiredException;
+import com.olumide.springboottesting.exception.DuplicateEmailException;
 import com.olumide.springboottesting.exception.ResourceNotFoundException;
+import com.olumide.springboottesting.exception.TooManyIdsException;
+import com.olumide.springboottesting.exception.VersionConflictException;
 import com.olumide.springboottesting.model.Employee;
 import com.olumide.springboottesting.repository.EmployeeRepository;
 import com.olumide.springboottesting.service.EmployeeService;
@@ -13,8 +31,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.web.client.ResourceAccessException;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +55,10 @@ class EmployeeServiceImplTest {
 
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private EmployeeViewLoader employeeViewLoader;
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -51,26 +79,80 @@ class EmployeeServiceImplTest {
     @Test
     public void givenEmployeeObject_whenSaveEmployeeisCalled_thenReturnEmployeeObject(){
             //given
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.insertIfEmailAbsent(employee)).willReturn(Optional.of(employee));
             //when
         Employee savedEmployee = employeeService.saveEmployee(employee);
 
             //then
         assertThat(savedEmployee).isNotNull();
+        verify(eventPublisher).publishEvent(EmployeeChangeEvent.created(employee));
     }
 
     @Test
     public void givenExistingEmail_whenSaveEmployee_thenThrowsException(){
             //given
-       given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+       given(employeeRepository.insertIfEmailAbsent(employee)).willReturn(Optional.empty());
             //when
-        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class,() ->  {
+        org.junit.jupiter.api.Assertions.assertThrows(DuplicateEmailException.class,() ->  {
             employeeService.saveEmployee(employee);
         });
             //then
+        verify(employeeRepository,never()).findByEmail(any(String.class));
         verify(employeeRepository,never()).save(any(Employee.class));
+        verifyNoInteractions(eventPublisher);
+
+    }
 
+    @Test
+    public void givenBatchWithDuplicates_whenSaveEmployees_thenInsertOnlyNewEmails(){
+            //given
+        Employee existing = Employee.builder()
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email("omotara@gmail.com")
+                .build();
+        Employee repeated = Employee.builder()
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .build();
+        // the insert skips omotara@gmail.com, which another row already holds
+        given(employeeRepository.insertAllIfEmailAbsent(List.of(employee, existing))).willAnswer(i -> {
+            employee.setId(7L);
+            return List.of(employee);
+        });
+            //when
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(List.of(employee, existing, repeated));
+            //then
+        assertThat(results).extracting(EmployeeBatchResult::status).containsExactly(
+                EmployeeBatchResult.Status.CREATED,
+                EmployeeBatchResult.Status.DUPLICATE_EMAIL,
+                EmployeeBatchResult.Status.DUPLICATE_EMAIL);
+        assertThat(results.get(0).id()).isEqualTo(7L);
+    }
+
+    @Test
+    public void givenIdsWithMissingAndRepeated_whenGetByIds_thenQueryOnceAndAnswerInRequestOrder(){
+        //given
+        given(employeeRepository.findViewsByIds(List.of(9L, 1L))).willReturn(List.of(EmployeeView.of(employee)));
+        //when
+        List<EmployeeLookupResult> results = employeeService.getByIds(List.of(9L, 1L, 9L));
+        //then
+        assertThat(results).containsExactly(
+                EmployeeLookupResult.notFound(9L),
+                EmployeeLookupResult.found(EmployeeView.of(employee)),
+                EmployeeLookupResult.notFound(9L));
+        verify(employeeRepository, times(1)).findViewsByIds(any());
+    }
+
+    @Test
+    public void givenMoreIdsThanCap_whenGetByIds_thenRejectWithoutQuery(){
+        //given
+        employeeService.multiGetMaxIds = 2;
+        //when
+        assertThrows(TooManyIdsException.class, () -> employeeService.getByIds(List.of(1L, 2L, 3L)));
+        //then
+        verify(employeeRepository, never()).findViewsByIds(any());
     }
 
     @Test
@@ -82,9 +164,9 @@ class EmployeeServiceImplTest {
                 .lastName("dele-johnson")
                 .email("omotara@gmail.com")
                 .build();
-      given(employeeRepository.findAll()).willReturn(List.of(employee,employee2));
+      given(employeeRepository.findAllViews()).willReturn(List.of(EmployeeView.of(employee), EmployeeView.of(employee2)));
         //when
-       List<Employee> employeeList = employeeService.getAllEmployees();
+       List<EmployeeView> employeeList = employeeService.getAllEmployees();
         //then
         assertThat(employeeList).isNotEmpty();
         assertThat(employeeList.size()).isGreaterThan(0);
@@ -93,19 +175,60 @@ class EmployeeServiceImplTest {
     @Test
     public void givenEmptyEmployeeList_whenGetAllEmployees_thenReturnEmptyEmployeesList(){
         //given
-      given(employeeRepository.findAll()).willReturn(Collections.emptyList());
+      given(employeeRepository.findAllViews()).willReturn(Collections.emptyList());
         //when
-      List<Employee> employeeList = employeeService.getAllEmployees();
+      List<EmployeeView> employeeList = employeeService.getAllEmployees();
       //then
         assertThat(employeeList).isEmpty();
     }
 
+    @Test
+    public void givenMoreRowsThanPageSize_whenGetEmployeePage_thenReturnNextCursor(){
+        //given
+        Employee employee2 = Employee.builder()
+                .id(2L)
+                .firstName("omotara")
+                .lastName("dele-johnson")
+                .email("omotara@gmail.com")
+                .build();
+        given(employeeRepository.findViewsByIdGreaterThan(0L, PageRequest.of(0, 2)))
+                .willReturn(List.of(EmployeeView.of(employee), EmployeeView.of(employee2)));
+        //when
+        EmployeePage page = employeeService.getEmployeePage(null, 1);
+        //then
+        assertThat(page.items()).containsExactly(EmployeeView.of(employee));
+        assertThat(PageCursor.decode(page.nextCursor())).isEqualTo(1L);
+    }
+
+    @Test
+    public void givenLastPage_whenGetEmployeePage_thenReturnNoCursor(){
+        //given
+        given(employeeRepository.findViewsByIdGreaterThan(1L, PageRequest.of(0, 11))).willReturn(List.of(EmployeeView.of(employee)));
+        //when
+        EmployeePage page = employeeService.getEmployeePage(PageCursor.encode(1L), 10);
+        //then
+        assertThat(page.items()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    public void givenCriteria_whenSearchEmployees_thenPageThroughRepository(){
+        //given
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria("dele", null, null, null, null);
+        given(employeeRepository.search(criteria, 0L, 2)).willReturn(List.of(EmployeeView.of(employee)));
+        //when
+        EmployeePage page = employeeService.searchEmployees(criteria, null, 1);
+        //then
+        assertThat(page.items()).containsExactly(EmployeeView.of(employee));
+        assertThat(page.nextCursor()).isNull();
+    }
+
     @Test
     public void givenEmployeeById_whenGetEmployee_thenReturnEmployeeObject(){
         //given
-        given(employeeRepository.findById(employee.getId())).willReturn(Optional.of(employee));
+        given(employeeViewLoader.load(employee.getId())).willReturn(Optional.of(EmployeeView.of(employee)));
         //when
-         Employee savedEmployee =   employeeService.getById(employee.getId()).get();
+         EmployeeView savedEmployee =   employeeService.getById(employee.getId()).get();
         //then
         assertThat(savedEmployee).isNotNull();
     }
@@ -113,7 +236,7 @@ class EmployeeServiceImplTest {
     @Test
     public void givenEmployeeIdThatDoesExist_whenFindById_thenThrowException(){
         //given
-        given(employeeRepository.findById(employee.getId())).willReturn(Optional.empty());
+        given(employeeViewLoader.load(employee.getId())).willReturn(Optional.empty());
         //when
         org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
             employeeService.getById(employee.getId());
@@ -125,24 +248,154 @@ class EmployeeServiceImplTest {
     @Test
     public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee(){
         //given
-            given(employeeRepository.save(employee)).willReturn(employee);
         employee.setEmail("omotara@gmail.com");
         employee.setFirstName("omotara");
+            given(employeeRepository.updateFields(employee.getId(), EmployeePatch.of(employee))).willReturn(Optional.of(employee));
         //when
            Employee updatedEmployee = employeeService.updateEmployee(employee);
         //then
         assertThat(updatedEmployee).isNotNull();
         assertThat(updatedEmployee.getFirstName()).isEqualTo("omotara");
+        verify(employeeRepository, never()).findById(any(Long.class));
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    @Test
+    public void givenStaleVersion_whenPatchEmployee_thenThrowVersionConflict(){
+        //given
+        EmployeePatch patch = new EmployeePatch("omotara", null, null, 3L);
+        given(employeeRepository.updateFields(1L, patch)).willReturn(Optional.empty());
+        given(employeeRepository.existsById(1L)).willReturn(true);
+        //when
+        org.junit.jupiter.api.Assertions.assertThrows(VersionConflictException.class, () -> {
+            employeeService.patchEmployee(1L, patch);
+        });
+    }
+
+    @Test
+    public void givenMissingEmployee_whenPatchEmployee_thenThrowNotFound(){
+        //given
+        EmployeePatch patch = new EmployeePatch("omotara", null, null, null);
+        given(employeeRepository.updateFields(1L, patch)).willReturn(Optional.empty());
+        given(employeeRepository.existsById(1L)).willReturn(false);
+        //when
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.patchEmployee(1L, patch);
+        });
     }
 
     @Test
     public void givenEmployeeId_whenDeleteIsCalled_thenReturnVoid(){
         //given
-           willDoNothing().given(employeeRepository).deleteById(employee.getId());
+           given(employeeRepository.deleteRowById(employee.getId())).willReturn(1);
         //when
           employeeService.deleteEmployee(employee.getId());
         //then
-        verify(employeeRepository,times(1)).deleteById(employee.getId());
+        verify(employeeRepository,times(1)).deleteRowById(employee.getId());
+        verify(employeeRepository,never()).findById(any(Long.class));
+        verify(eventPublisher).publishEvent(EmployeeChangeEvent.deleted(employee.getId()));
+    }
+
+    @Test
+    public void givenMissingEmployeeId_whenDeleteIsCalled_thenThrowException(){
+        //given
+        given(employeeRepository.deleteRowById(employee.getId())).willReturn(0);
+        //when
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.deleteEmployee(employee.getId());
+        });
     }
 
-}
\ No newline at end of file
+    @Test
+    public void givenEmailDomain_whenDeleteEmployees_thenDeleteNormalizedDomainInChunks(){
+        //given
+        given(employeeRepository.deleteByEmailDomain("gmail.com", EmployeeServiceImpl.DELETE_CHUNK_SIZE))
+                .willReturn(EmployeeServiceImpl.DELETE_CHUNK_SIZE + 3L);
+        given(employeeRepository.deleteRowsByIdIn(List.of(1L, 2L))).willReturn(2);
+        //when
+        EmployeeDeleteResult result = employeeService.deleteEmployees(new EmployeeDeleteRequest(List.of(1L, 2L, 2L), "Gmail.com"));
+        //then
+        assertThat(result.deleted()).isEqualTo(EmployeeServiceImpl.DELETE_CHUNK_SIZE + 3 + 2);
+        verify(employeeRepository).deleteByEmailDomain("gmail.com", EmployeeServiceImpl.DELETE_CHUNK_SIZE);
+    }
+
+
+    @Test
+    public void givenStaleVersion_whenDeleteEmployeeWithVersion_thenThrowVersionConflict(){
+        //given
+        given(employeeRepository.deleteRowByIdAndVersion(1L, 3L)).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+        //when
+        assertThrows(VersionConflictException.class, () -> employeeService.deleteEmployee(1L, 3L));
+        //then
+        verify(employeeRepository, never()).deleteRowById(any());
+    }
+
+    @Test
+    public void givenMissingEmployee_whenDeleteEmployeeWithVersion_thenThrowNotFound(){
+        //given
+        given(employeeRepository.deleteRowByIdAndVersion(1L, 3L)).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(false);
+        //when
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.deleteEmployee(1L, 3L));
+        //then
+    }
+
+    @Test
+    public void givenMoreChangesThanPageSize_whenGetChangesSince_thenSplitUpdatesAndDeletesAndResumeAfterLast(){
+        //given
+        EmployeeServiceImpl service = new EmployeeServiceImpl(employeeRepository, eventPublisher, employeeViewLoader, Duration.ofSeconds(5), Duration.ofDays(7));
+        Instant horizon = Instant.parse("2026-01-10T00:00:00Z");
+        ChangeToken since = new ChangeToken(Instant.parse("2026-01-09T00:00:00Z"), 7L);
+        given(employeeRepository.findSettledHorizon(Duration.ofSeconds(5))).willReturn(horizon);
+        given(employeeRepository.findChangesAfter(since, horizon, true, 3)).willReturn(List.of(
+                new EmployeeChange(Instant.parse("2026-01-09T01:00:00Z"), 1L, EmployeeView.of(employee)),
+                new EmployeeChange(Instant.parse("2026-01-09T02:00:00Z"), 2L, null),
+                new EmployeeChange(Instant.parse("2026-01-09T03:00:00Z"), 3L, null)));
+        //when
+        EmployeeChanges changes = service.getChangesSince(since.encode(), 2);
+        //then
+        assertThat(changes.updated()).containsExactly(EmployeeView.of(employee));
+        assertThat(changes.deleted()).containsExactly(2L);
+        assertThat(changes.hasMore()).isTrue();
+        assertThat(ChangeToken.decode(changes.nextToken())).isEqualTo(new ChangeToken(Instant.parse("2026-01-09T02:00:00Z"), 2L));
+    }
+
+    @Test
+    public void givenNoToken_whenGetChangesSince_thenReadLiveRowsOnlyAndMoveTokenToHorizon(){
+        //given
+        EmployeeServiceImpl service = new EmployeeServiceImpl(employeeRepository, eventPublisher, employeeViewLoader, Duration.ofSeconds(5), Duration.ofDays(7));
+        Instant horizon = Instant.parse("2026-01-10T00:00:00Z");
+        given(employeeRepository.findSettledHorizon(Duration.ofSeconds(5))).willReturn(horizon);
+        given(employeeRepository.findChangesAfter(ChangeToken.BEGINNING, horizon, false, 11)).willReturn(List.of());
+        //when
+        EmployeeChanges changes = service.getChangesSince(null, 10);
+        //then
+        assertThat(changes.hasMore()).isFalse();
+        assertThat(ChangeToken.decode(changes.nextToken())).isEqualTo(new ChangeToken(horizon, 0L));
+    }
+
+    @Test
+    public void givenTokenOlderThanRetention_whenGetChangesSince_thenThrowExpired(){
+        //given
+        EmployeeServiceImpl service = new EmployeeServiceImpl(employeeRepository, eventPublisher, employeeViewLoader, Duration.ofSeconds(5), Duration.ofDays(7));
+        given(employeeRepository.findSettledHorizon(Duration.ofSeconds(5))).willReturn(Instant.parse("2026-01-10T00:00:00Z"));
+        String token = new ChangeToken(Instant.parse("2026-01-01T00:00:00Z"), 1L).encode();
+        //when
+        org.junit.jupiter.api.Assertions.assertThrows(ChangeTokenExpiredException.class, () -> service.getChangesSince(token, 10));
+        //then
+        verify(employeeRepository, never()).findChangesAfter(any(), any(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    public void givenImportedRows_whenImportCsv_thenPublishResetForFeedSubscribers(){
+        //given
+        EmployeeImportResult result = new EmployeeImportResult(2, 2, 0, List.of());
+        given(employeeRepository.importCsv(any(InputStream.class), eq(employeeService.importMaxErrors))).willReturn(result);
+        //when
+        EmployeeImportResult imported = employeeService.importCsv(new ByteArrayInputStream(new byte[0]));
+        //then
+        assertThat(imported).isEqualTo(result);
+        verify(eventPublisher).publishEvent(EmployeeChangeEvent.reset());
+    }
+}
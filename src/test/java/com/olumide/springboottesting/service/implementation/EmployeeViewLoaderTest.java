@@ -0,0 +1,160 @@
+package com.olumide.springboottesting.service.implementation;
+
+import com.olumide.springboottesting.config.ReplicaDataSource;
+import com.olumide.springboottesting.config.StatementCounter;
+import com.olumide.springboottesting.dto.EmployeeView;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.repository.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EmployeeViewLoaderTest {
+
+    private final EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EmployeeViewLoader loader;
+
+    @BeforeEach
+    public void setup(){
+        loader = new EmployeeViewLoader(employeeRepository, meterRegistry, Duration.ofMillis(200), 100);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        loader.shutdown();
+    }
+
+    @Test
+    public void givenSlowQueryInFlight_whenSameIdRequestedConcurrently_thenQueryOnce() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeRepository.findViewById(1L)).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(view(1L));
+        });
+        //when
+        List<CompletableFuture<Optional<EmployeeView>>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> loader.load(1L)));
+        }
+        while (meterRegistry.counter("employee.lookup.coalesced").count() < 4) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        //then
+        for (CompletableFuture<Optional<EmployeeView>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).contains(view(1L));
+        }
+        verify(employeeRepository, times(1)).findViewById(1L);
+        assertThat(meterRegistry.counter("employee.lookup.requests").count()).isEqualTo(5);
+    }
+
+    @Test
+    public void givenDistinctIdsWithinWindow_whenLoad_thenFetchInOneBatch() throws Exception {
+        //given
+        given(employeeRepository.findViewsByIds(anyCollection())).willAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            // id 3 has no row
+            return ids.stream().filter(id -> id != 3L).map(EmployeeViewLoaderTest::view).toList();
+        });
+        //when
+        List<CompletableFuture<Optional<EmployeeView>>> results = LongStream.rangeClosed(1, 3)
+                .mapToObj(id -> CompletableFuture.supplyAsync(() -> loader.load(id)))
+                .toList();
+        //then
+        assertThat(results.get(0).get(5, TimeUnit.SECONDS)).contains(view(1L));
+        assertThat(results.get(1).get(5, TimeUnit.SECONDS)).contains(view(2L));
+        assertThat(results.get(2).get(5, TimeUnit.SECONDS)).isEmpty();
+        verify(employeeRepository, times(1)).findViewsByIds(anyCollection());
+        verify(employeeRepository, times(0)).findViewById(anyLong());
+        assertThat(meterRegistry.summary("employee.lookup.batch.size").max()).isEqualTo(3);
+    }
+
+    @Test
+    public void givenFullBatchAndFailingQuery_whenLoad_thenFlushWithoutWaitingAndPropagateFailure() {
+        //given
+        loader.shutdown();
+        loader = new EmployeeViewLoader(employeeRepository, meterRegistry, Duration.ofHours(1), 1);
+        given(employeeRepository.findViewById(1L)).willThrow(new DataAccessResourceFailureException("down"));
+        //when
+        //then
+        assertThatThrownBy(() -> loader.load(1L)).isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @Test
+    public void givenCallerPinnedToPrimary_whenLoad_thenFetchOnPrimaryAndCreditItsStatements() {
+        //given
+        given(employeeRepository.findViewById(1L)).willAnswer(invocation -> {
+            new StatementCounter().afterQuery(null, List.of());
+            return ReplicaDataSource.isPinnedToPrimary() ? Optional.of(view(1L)) : Optional.empty();
+        });
+        StatementCounter.reset();
+        //when
+        Optional<EmployeeView> result = ReplicaDataSource.onPrimary(() -> loader.load(1L));
+        //then
+        assertThat(result).contains(view(1L));
+        assertThat(StatementCounter.current()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenQuerySentBeforeCallersWrite_whenPinnedCallerLoadsSameId_thenQueryAgain() throws Exception {
+        //given
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger queries = new AtomicInteger();
+        given(employeeRepository.findViewById(1L)).willAnswer(invocation -> {
+            if (queries.getAndIncrement() == 0) {
+                sent.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return Optional.empty();
+            }
+            return Optional.of(view(1L));
+        });
+        CompletableFuture<Optional<EmployeeView>> earlier = CompletableFuture.supplyAsync(
+                () -> ReplicaDataSource.onPrimary(() -> loader.load(1L)));
+        assertThat(sent.await(5, TimeUnit.SECONDS)).isTrue();
+        //when
+        Optional<EmployeeView> result = ReplicaDataSource.onPrimary(() -> loader.load(1L));
+        //then
+        assertThat(result).contains(view(1L));
+        release.countDown();
+        assertThat(earlier.get(5, TimeUnit.SECONDS)).isEmpty();
+        verify(employeeRepository, times(2)).findViewById(1L);
+        assertThat(meterRegistry.counter("employee.lookup.coalesced").count()).isZero();
+    }
+
+    private static EmployeeView view(long id) {
+        return EmployeeView.of(Employee.builder()
+                .id(id)
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("employee" + id + "@gmail.com")
+                .build());
+    }
+}
@@ -0,0 +1,143 @@
+package com.olumide.springboottesting.service.implementation;
+
+import com.olumide.springboottesting.dto.EmployeeBatchResult;
+import com.olumide.springboottesting.dto.EmployeeDeleteRequest;
+import com.olumide.springboottesting.dto.EmployeeDeleteResult;
+import com.olumide.springboottesting.dto.EmployeePatch;
+import com.olumide.springboottesting.exception.DuplicateEmailException;
+import com.olumide.springboottesting.exception.ResourceNotFoundException;
+import com.olumide.springboottesting.exception.VersionConflictException;
+import com.olumide.springboottesting.model.Employee;
+import com.olumide.springboottesting.repository.ReactiveEmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveEmployeeServiceImplTest {
+
+    @Mock
+    private ReactiveEmployeeRepository employeeRepository;
+    @InjectMocks
+    private ReactiveEmployeeServiceImpl employeeService;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("olumide")
+                .lastName("dele-johnson")
+                .email("olumide@gmail.com")
+                .version(3L)
+                .build();
+    }
+
+    @Test
+    public void givenTakenEmail_whenSaveEmployee_thenErrorWithDuplicateEmail() {
+        //given
+        given(employeeRepository.insertIfEmailAbsent(employee)).willReturn(Mono.empty());
+
+        //when
+        Mono<Employee> saved = employeeService.saveEmployee(employee);
+
+        //then
+        StepVerifier.create(saved).expectError(DuplicateEmailException.class).verify();
+    }
+
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenErrorWithVersionConflict() {
+        //given
+        given(employeeRepository.updateFields(eq(1L), any(EmployeePatch.class))).willReturn(Mono.empty());
+        given(employeeRepository.existsById(1L)).willReturn(Mono.just(true));
+
+        //when
+        Mono<Employee> updated = employeeService.updateEmployee(employee);
+
+        //then
+        StepVerifier.create(updated).expectError(VersionConflictException.class).verify();
+    }
+
+    @Test
+    public void givenMissingEmployee_whenUpdateEmployee_thenErrorWithNotFound() {
+        //given
+        given(employeeRepository.updateFields(eq(1L), any(EmployeePatch.class))).willReturn(Mono.empty());
+        given(employeeRepository.existsById(1L)).willReturn(Mono.just(false));
+
+        //when
+        Mono<Employee> updated = employeeService.updateEmployee(employee);
+
+        //then
+        StepVerifier.create(updated).expectError(ResourceNotFoundException.class).verify();
+    }
+
+    @Test
+    public void givenMissingEmployee_whenDeleteEmployee_thenErrorWithNotFound() {
+        //given
+        given(employeeRepository.deleteById(1L)).willReturn(Mono.just(0L));
+
+        //when
+        Mono<Void> deleted = employeeService.deleteEmployee(1L);
+
+        //then
+        StepVerifier.create(deleted).expectError(ResourceNotFoundException.class).verify();
+    }
+
+    @Test
+    public void givenEmployee_whenDeleteEmployee_thenComplete() {
+        //given
+        given(employeeRepository.deleteById(1L)).willReturn(Mono.just(1L));
+
+        //when
+        Mono<Void> deleted = employeeService.deleteEmployee(1L);
+
+        //then
+        StepVerifier.create(deleted).verifyComplete();
+    }
+
+    @Test
+    public void givenBatchWithTakenAndRepeatedEmails_whenSaveEmployees_thenReportThemAsDuplicates() {
+        //given
+        Employee taken = Employee.builder().firstName("omotara").lastName("dele-johnson").email("omotara@gmail.com").build();
+        Employee repeated = Employee.builder().firstName("olumide").lastName("dele-johnson").email("Olumide@Gmail.com").build();
+        // the insert skips omotara@gmail.com, which another row already holds
+        given(employeeRepository.insertAllIfEmailAbsent(List.of(employee, taken))).willReturn(Flux.just(employee));
+
+        //when
+        Mono<List<EmployeeBatchResult>> results = employeeService.saveEmployees(List.of(employee, taken, repeated));
+
+        //then
+        StepVerifier.create(results)
+                .expectNext(List.of(
+                        EmployeeBatchResult.created(0, 1L, "olumide@gmail.com"),
+                        EmployeeBatchResult.duplicate(1, "omotara@gmail.com"),
+                        EmployeeBatchResult.duplicate(2, "olumide@gmail.com")))
+                .verifyComplete();
+    }
+
+    @Test
+    public void givenIdsAndDomain_whenDeleteEmployees_thenAddUpBothDeletes() {
+        //given
+        given(employeeRepository.deleteByIds(List.of(1L, 2L))).willReturn(Mono.just(2L));
+        given(employeeRepository.deleteByEmailDomain("gmail.com", EmployeeServiceImpl.DELETE_CHUNK_SIZE)).willReturn(Mono.just(3L));
+
+        //when
+        Mono<EmployeeDeleteResult> result = employeeService.deleteEmployees(new EmployeeDeleteRequest(List.of(1L, 2L, 2L), "Gmail.com"));
+
+        //then
+        StepVerifier.create(result).expectNext(new EmployeeDeleteResult(5)).verifyComplete();
+    }
+}